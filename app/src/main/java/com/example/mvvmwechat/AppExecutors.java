@@ -0,0 +1,240 @@
+package com.example.mvvmwechat;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AppExecutors - 全局共享的线程池（替代各处自己 new 的 newSingleThreadExecutor）
+ *
+ * - diskIO：Room 读写
+ * - network：网络请求（含请求后写库）
+ * - compute：图片处理、排序等 CPU 计算
+ * - scheduler：延时/定时任务（如轮询），只有一个线程，不在上面做阻塞操作
+ * - mainThread：切回主线程
+ *
+ * 每个池的线程数固定上限、线程带名字，空闲 KEEP_ALIVE_SECONDS 后线程自动退出，
+ * 所以切换多少次页面线程数都不会增长。UI 相关的任务通过 scope(owner) 提交，
+ * owner 销毁时未完成的任务自动取消，回到主线程的回调也不会再执行。
+ */
+public class AppExecutors {
+    private static final int DISK_IO_THREADS = 2;
+    private static final int NETWORK_THREADS = 4;
+    private static final int COMPUTE_THREADS =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile AppExecutors INSTANCE;
+
+    private final MonitoredExecutor diskIO;
+    private final MonitoredExecutor network;
+    private final MonitoredExecutor compute;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Executor mainThread = mainHandler::post;
+
+    private AppExecutors() {
+        diskIO = new MonitoredExecutor("disk", DISK_IO_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+        network = new MonitoredExecutor("net", NETWORK_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+        compute = new MonitoredExecutor("cpu", COMPUTE_THREADS, Process.THREAD_PRIORITY_DEFAULT);
+        scheduler = new ScheduledThreadPoolExecutor(1,
+                new NamedThreadFactory("sched", Process.THREAD_PRIORITY_BACKGROUND));
+        // 取消的定时任务立即移出队列；没有待执行任务时线程退出
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+    }
+
+    public static AppExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public ExecutorService diskIO() {
+        return diskIO;
+    }
+
+    public ExecutorService network() {
+        return network;
+    }
+
+    public ExecutorService compute() {
+        return compute;
+    }
+
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * 绑定生命周期的任务作用域，必须在主线程调用
+     * Fragment 里请传 getViewLifecycleOwner()，这样 View 销毁时就会取消
+     */
+    public Scope scope(@NonNull LifecycleOwner owner) {
+        return new Scope(owner);
+    }
+
+    /**
+     * 各线程池的当前状态（线程数、排队数、累计任务数、平均排队耗时），用于日志排查
+     */
+    public String dumpStats() {
+        return diskIO.stats() + "\n" + network.stats() + "\n" + compute.stats()
+                + "\nsched: threads=" + scheduler.getPoolSize() + " queued=" + scheduler.getQueue().size();
+    }
+
+    // --------------------------------
+    // 带统计的线程池
+    // --------------------------------
+    static class MonitoredExecutor extends ThreadPoolExecutor {
+        private final String name;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicInteger maxQueued = new AtomicInteger();
+
+        MonitoredExecutor(String name, int threads, int priority) {
+            // 队列不设上限，线程数有上限：任务多时排队而不是开新线程
+            super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new NamedThreadFactory(name, priority));
+            this.name = name;
+            // 空闲时连核心线程也回收，后台没有任务时不常驻线程
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            submitted.incrementAndGet();
+            final long enqueuedAt = System.nanoTime();
+            super.execute(() -> {
+                totalWaitNanos.addAndGet(System.nanoTime() - enqueuedAt);
+                try {
+                    command.run();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            });
+            int depth = getQueue().size();
+            int max;
+            while (depth > (max = maxQueued.get()) && !maxQueued.compareAndSet(max, depth)) {
+                // 重试直到写入更大的值
+            }
+        }
+
+        String stats() {
+            long done = completed.get();
+            long avgWaitMs = done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / done);
+            return name + ": threads=" + getPoolSize() + " active=" + getActiveCount()
+                    + " queued=" + getQueue().size() + " maxQueued=" + maxQueued.get()
+                    + " submitted=" + submitted.get() + " completed=" + done
+                    + " avgWaitMs=" + avgWaitMs;
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final int priority;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name, int priority) {
+            this.prefix = "app-" + name + "-";
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            return new Thread(() -> {
+                Process.setThreadPriority(priority);
+                r.run();
+            }, prefix + count.incrementAndGet());
+        }
+    }
+
+    // --------------------------------
+    // 生命周期作用域
+    // --------------------------------
+    public class Scope implements LifecycleEventObserver {
+        private final Set<Future<?>> running = new HashSet<>();
+        private volatile boolean destroyed;
+
+        Scope(LifecycleOwner owner) {
+            if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+                destroyed = true;
+            } else {
+                owner.getLifecycle().addObserver(this);
+            }
+        }
+
+        /**
+         * 在指定线程池执行；owner 销毁时还没执行完的任务会被取消（中断）
+         * owner 已经销毁时直接丢弃，返回 null
+         */
+        public Future<?> execute(ExecutorService pool, Runnable task) {
+            if (destroyed) return null;
+            FutureTask<Void> future = new FutureTask<Void>(task, null) {
+                @Override
+                protected void done() {
+                    synchronized (running) {
+                        running.remove(this);
+                    }
+                }
+            };
+            synchronized (running) {
+                running.add(future);
+            }
+            pool.execute(future);
+            return future;
+        }
+
+        /**
+         * 切回主线程执行；owner 销毁后不再执行（不需要再判断 getActivity() != null）
+         */
+        public void post(Runnable uiTask) {
+            mainHandler.post(() -> {
+                if (!destroyed) uiTask.run();
+            });
+        }
+
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            if (event != Lifecycle.Event.ON_DESTROY) return;
+            destroyed = true;
+            source.getLifecycle().removeObserver(this);
+            Future<?>[] pending;
+            synchronized (running) {
+                pending = running.toArray(new Future<?>[0]);
+                running.clear();
+            }
+            for (Future<?> f : pending) f.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.mvvmwechat;
+
+import android.app.Application;
+
+import com.example.mvvmwechat.network.HttpClients;
+import com.example.mvvmwechat.repository.TryOnRepository;
+
+/**
+ * MvvmApp - 应用入口：初始化共享的网络组件，恢复上次没完成的换装任务
+ */
+public class MvvmApp extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        HttpClients.init(this);
+        TryOnRepository.getInstance(this).resumePending();
+    }
+}
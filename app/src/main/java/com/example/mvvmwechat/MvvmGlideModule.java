@@ -0,0 +1,55 @@
+package com.example.mvvmwechat;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.example.mvvmwechat.network.HttpClients;
+
+import java.io.InputStream;
+
+/**
+ * MvvmGlideModule - Glide 全局配置
+ *
+ * - 内存缓存按屏幕数计算：瀑布流来回滑动时保留约 2 屏已解码的图片，BitmapPool 保留 3 屏供复用
+ * - 磁盘缓存放在 cacheDir/glide，上限 DISK_CACHE_BYTES
+ * - 图片请求走 HttpClients.images()：与其它请求共用连接池，但不进 HTTP 缓存（已经有上面的磁盘缓存）
+ */
+@GlideModule
+public class MvvmGlideModule extends AppGlideModule {
+    private static final String DISK_CACHE_DIR = "glide";
+    private static final long DISK_CACHE_BYTES = 150L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(2)
+                .setBitmapPoolScreens(3)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(HttpClients.images()));
+    }
+
+    // 所有配置都在这里，不需要再解析 AndroidManifest 里的旧式 GlideModule
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -1,32 +1,224 @@
 package com.example.mvvmwechat.data;
 
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
 
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import com.example.mvvmwechat.core.TagSplitter;
 
-@Database(entities = {User.class, Outfit.class, Favorite.class, UploadedImage.class, Setting.class}, version = 1, exportSchema = false)
+import java.util.HashMap;
+import java.util.Map;
+
+
+@Database(entities = {User.class, Outfit.class, OutfitFts.class, Favorite.class, UploadedImage.class, Setting.class, TryOnJob.class, TryOnResult.class, WeatherCache.class, Tag.class, OutfitTag.class}, version = 12, exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
     public abstract UserDao userDao();
     public abstract OutfitDao outfitDao();
     public abstract FavoriteDao favoriteDao();
     public abstract UploadedImageDao uploadedImageDao();
     public abstract SettingDao settingDao();
+    public abstract TryOnJobDao tryOnJobDao();
+    public abstract TryOnResultDao tryOnResultDao();
+    public abstract WeatherDao weatherDao();
+    public abstract TagDao tagDao();
 
 
     private static volatile AppDatabase INSTANCE;
 
 
+    // v1 -> v2：outfits 表的筛选列加索引
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_outfits_gender` ON `outfits` (`gender`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_outfits_style` ON `outfits` (`style`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_outfits_season` ON `outfits` (`season`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_outfits_weather` ON `outfits` (`weather`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_outfits_scene` ON `outfits` (`scene`)");
+        }
+    };
+
+
+    // v2 -> v3：新增 outfits_fts 全文索引（与 Room 为 @Fts4 生成的建表语句、同步触发器保持一致）
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `outfits_fts` USING FTS4("
+                    + "`title` TEXT, `style` TEXT, `scene` TEXT, `season` TEXT, `weather` TEXT, "
+                    + "tokenize=icu, content=`outfits`)");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_outfits_fts_BEFORE_UPDATE "
+                    + "BEFORE UPDATE ON `outfits` BEGIN DELETE FROM `outfits_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_outfits_fts_BEFORE_DELETE "
+                    + "BEFORE DELETE ON `outfits` BEGIN DELETE FROM `outfits_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_outfits_fts_AFTER_UPDATE "
+                    + "AFTER UPDATE ON `outfits` BEGIN INSERT INTO `outfits_fts`"
+                    + "(`docid`, `title`, `style`, `scene`, `season`, `weather`) VALUES "
+                    + "(NEW.`rowid`, NEW.`title`, NEW.`style`, NEW.`scene`, NEW.`season`, NEW.`weather`); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_outfits_fts_AFTER_INSERT "
+                    + "AFTER INSERT ON `outfits` BEGIN INSERT INTO `outfits_fts`"
+                    + "(`docid`, `title`, `style`, `scene`, `season`, `weather`) VALUES "
+                    + "(NEW.`rowid`, NEW.`title`, NEW.`style`, NEW.`scene`, NEW.`season`, NEW.`weather`); END");
+            // 为已有数据建立索引
+            db.execSQL("INSERT INTO `outfits_fts`(`outfits_fts`) VALUES('rebuild')");
+        }
+    };
+
+
+    // v3 -> v4：favorites 的 outfitId 加唯一索引 + 外键（SQLite 不能给已有表加外键，只能重建）
+    // 重复收藏只保留最早的一条，已不存在的穿搭的收藏直接丢弃
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `favorites_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `outfitId` INTEGER NOT NULL, `addedAt` TEXT, "
+                    + "FOREIGN KEY(`outfitId`) REFERENCES `outfits`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO `favorites_new` (`id`, `outfitId`, `addedAt`) "
+                    + "SELECT `id`, `outfitId`, `addedAt` FROM `favorites` "
+                    + "WHERE `id` IN (SELECT MIN(`id`) FROM `favorites` GROUP BY `outfitId`) "
+                    + "AND `outfitId` IN (SELECT `id` FROM `outfits`)");
+            db.execSQL("DROP TABLE `favorites`");
+            db.execSQL("ALTER TABLE `favorites_new` RENAME TO `favorites`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_favorites_outfitId` ON `favorites` (`outfitId`)");
+        }
+    };
+
+
+    // v4 -> v5：新增 try_on_jobs 换装任务表
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `try_on_jobs` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `inputsHash` TEXT NOT NULL, "
+                    + "`personHash` TEXT, `garmentHash` TEXT, `personPath` TEXT, `garmentPath` TEXT, "
+                    + "`category` TEXT, `jobId` TEXT, `status` TEXT NOT NULL, `resultUrl` TEXT, `error` TEXT, "
+                    + "`attempts` INTEGER NOT NULL, `createdAt` INTEGER NOT NULL, `updatedAt` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_try_on_jobs_inputsHash` ON `try_on_jobs` (`inputsHash`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_try_on_jobs_status` ON `try_on_jobs` (`status`)");
+        }
+    };
+
+
+    // v5 -> v6：新增 try_on_results 换装结果缓存索引
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `try_on_results` ("
+                    + "`personHash` TEXT NOT NULL, `garmentHash` TEXT NOT NULL, `category` TEXT NOT NULL, "
+                    + "`filePath` TEXT, `sourceUrl` TEXT, `sizeBytes` INTEGER NOT NULL, "
+                    + "`createdAt` INTEGER NOT NULL, `lastAccessAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`personHash`, `garmentHash`, `category`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_try_on_results_lastAccessAt` ON `try_on_results` (`lastAccessAt`)");
+        }
+    };
+
+
+    // v6 -> v7：outfits 新增缩略图地址列
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `outfits` ADD COLUMN `thumbnailPath` TEXT");
+        }
+    };
+
+
+    // v7 -> v8：新增 weather_cache 天气缓存表
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_cache` ("
+                    + "`bucket` TEXT NOT NULL, `cityName` TEXT, `description` TEXT, "
+                    + "`temperature` REAL NOT NULL, `conditionId` INTEGER NOT NULL, `tag` TEXT, "
+                    + "`fetchedAt` INTEGER NOT NULL, PRIMARY KEY(`bucket`))");
+        }
+    };
+
+
+    // v8 -> v9：新增 tags / outfit_tags 标签表，并把已有穿搭的 style/season/weather/scene 拆成标签
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `tags` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `facet` TEXT NOT NULL, `name` TEXT NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_tags_facet_name` ON `tags` (`facet`, `name`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `outfit_tags` ("
+                    + "`outfitId` INTEGER NOT NULL, `tagId` INTEGER NOT NULL, PRIMARY KEY(`tagId`, `outfitId`), "
+                    + "FOREIGN KEY(`outfitId`) REFERENCES `outfits`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`tagId`) REFERENCES `tags`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_outfit_tags_outfitId_tagId` ON `outfit_tags` (`outfitId`, `tagId`)");
+
+            // 拆分已有数据（与 OutfitRepository 写入新数据时用同一个 TagSplitter）
+            Map<String, Long> tagIds = new HashMap<>();
+            try (Cursor c = db.query("SELECT id, style, season, weather, scene FROM outfits")) {
+                while (c.moveToNext()) {
+                    long outfitId = c.getLong(0);
+                    for (int f = 0; f < TagSplitter.FACETS.length; f++) {
+                        String facet = TagSplitter.FACETS[f];
+                        String value = c.isNull(f + 1) ? null : c.getString(f + 1);
+                        for (String name : TagSplitter.split(facet, value)) {
+                            String key = facet + '\u0000' + name;
+                            Long tagId = tagIds.get(key);
+                            if (tagId == null) {
+                                ContentValues cv = new ContentValues();
+                                cv.put("facet", facet);
+                                cv.put("name", name);
+                                tagId = db.insert("tags", SQLiteDatabase.CONFLICT_ABORT, cv);
+                                tagIds.put(key, tagId);
+                            }
+                            db.execSQL("INSERT OR IGNORE INTO `outfit_tags` (`outfitId`, `tagId`) VALUES (?, ?)",
+                                    new Object[]{outfitId, tagId});
+                        }
+                    }
+                }
+            }
+        }
+    };
+
+
+    // v9 -> v10：try_on_jobs 保存当前这次提交的幂等键，恢复时沿用
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `try_on_jobs` ADD COLUMN `idempotencyKey` TEXT");
+        }
+    };
+
+
+    // v10 -> v11：try_on_jobs 保存输入图片的 MIME 类型
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `try_on_jobs` ADD COLUMN `personType` TEXT");
+            db.execSQL("ALTER TABLE `try_on_jobs` ADD COLUMN `garmentType` TEXT");
+        }
+    };
+
+
+    // v11 -> v12：已有的 outfits.gender 转成小写，和同步写入时的处理一致
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE `outfits` SET `gender` = lower(trim(`gender`)) "
+                    + "WHERE `gender` IS NOT NULL AND `gender` != lower(trim(`gender`))");
+        }
+    };
+
+
     public static AppDatabase getInstance(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     AppDatabase.class, "mvvm_outfit_db")
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12)
                             .build();
                 }
             }
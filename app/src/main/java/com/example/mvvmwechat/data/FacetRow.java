@@ -0,0 +1,13 @@
+package com.example.mvvmwechat.data;
+
+/**
+ * FacetRow - outfits 按五个筛选列分组后的一组：这种组合的穿搭有多少条
+ */
+public class FacetRow {
+    public String gender;
+    public String style;
+    public String season;
+    public String weather;
+    public String scene;
+    public int outfitCount;
+}
@@ -2,10 +2,19 @@ package com.example.mvvmwechat.data;
 
 
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 
-@Entity(tableName = "favorites")
+// 同一件穿搭只能收藏一次；穿搭被删除时收藏随之删除
+// （修改索引/外键需要在 AppDatabase 中写对应的 Migration）
+@Entity(tableName = "favorites",
+        indices = {@Index(value = "outfitId", unique = true)},
+        foreignKeys = @ForeignKey(entity = Outfit.class,
+                parentColumns = "id",
+                childColumns = "outfitId",
+                onDelete = ForeignKey.CASCADE))
 public class Favorite {
     @PrimaryKey(autoGenerate = true)
     public long id;
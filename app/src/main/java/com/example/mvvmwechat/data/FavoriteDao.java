@@ -1,8 +1,10 @@
 package com.example.mvvmwechat.data;
 
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 
 
@@ -11,14 +13,34 @@ import java.util.List;
 
 @Dao
 public interface FavoriteDao {
-    @Insert
-    void insert(Favorite favorite);
+    // outfitId 上有唯一索引：重复收藏直接忽略，返回 -1
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(Favorite favorite);
 
 
     @Query("SELECT * FROM favorites")
     List<Favorite> getAll();
 
 
+    // 只读取收藏的穿搭 id（推荐排序用）
+    @Query("SELECT outfitId FROM favorites")
+    List<Long> getAllOutfitIds();
+
+
+    // 可观察版本：favorites 表变化时自动重新查询
+    @Query("SELECT * FROM favorites")
+    LiveData<List<Favorite>> observeAll();
+
+
+    /**
+     * 收藏的穿搭，按收藏时间排序；只读取收藏的行，不扫描整个 outfits 表
+     * favorites 或 outfits 表变化时自动重新查询
+     */
+    @Query("SELECT outfits.* FROM favorites INNER JOIN outfits ON outfits.id = favorites.outfitId"
+            + " ORDER BY CAST(favorites.addedAt AS INTEGER), favorites.id")
+    LiveData<List<Outfit>> observeFavoriteOutfits();
+
+
     @Query("DELETE FROM favorites WHERE outfitId = :outfitId")
     void removeByOutfitId(long outfitId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.example.mvvmwechat.data;
+
+import java.util.Locale;
+
+/**
+ * FtsQuery - 把用户输入的关键字转换成 FTS4 MATCH 表达式
+ *
+ * "甜美 约会" -> "甜美"* "约会"*
+ * 每个词做前缀匹配，词与词之间是 AND；引号、星号等 FTS 语法字符会被去掉，避免输入导致语法错误
+ */
+public final class FtsQuery {
+
+    private FtsQuery() {}
+
+    /**
+     * @return MATCH 表达式；关键字为空时返回 null
+     */
+    public static String of(String keyword) {
+        if (keyword == null) return null;
+        String cleaned = keyword.toLowerCase(Locale.ROOT).replaceAll("[\"*^():\\-]", " ").trim();
+        if (cleaned.isEmpty()) return null;
+
+        StringBuilder sb = new StringBuilder();
+        for (String term : cleaned.split("\\s+")) {
+            if (term.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('"').append(term).append("\"*");
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+}
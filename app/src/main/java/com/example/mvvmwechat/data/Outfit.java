@@ -2,11 +2,21 @@ package com.example.mvvmwechat.data;
 
 import androidx.room.Entity;
 import androidx.room.Ignore; // ⚠️ 必须导入这个
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
+import com.example.mvvmwechat.core.CatalogItem;
 import com.google.gson.annotations.SerializedName;
 
-@Entity(tableName = "outfits")
-public class Outfit {
+// 筛选/排序用到的列都建索引（新增索引需要在 AppDatabase 中写对应的 Migration）
+@Entity(tableName = "outfits",
+        indices = {
+                @Index("gender"),
+                @Index("style"),
+                @Index("season"),
+                @Index("weather"),
+                @Index("scene")
+        })
+public class Outfit implements CatalogItem {
 
     @PrimaryKey(autoGenerate = true)
     public long id;
@@ -22,6 +32,10 @@ public class Outfit {
     @SerializedName("image_url")
     public String imagePath;
 
+    // 后端提供的缩略图地址（列表用），没有时为 null，列表退回用原图
+    @SerializedName("thumbnail_url")
+    public String thumbnailPath;
+
     // --- 构造函数 1：给 Room 和 Retrofit/Gson 使用的 ---
     public Outfit() {
     }
@@ -38,4 +52,35 @@ public class Outfit {
         this.scene = scene;
         this.imagePath = imagePath;
     }
+
+    // --- CatalogItem：给 :core 里的筛选/排序逻辑使用（方法名不是 getter 形式，Room 不会把它们当成列） ---
+    @Override
+    public long itemId() {
+        return id;
+    }
+
+    @Override
+    public String gender() {
+        return gender;
+    }
+
+    @Override
+    public String style() {
+        return style;
+    }
+
+    @Override
+    public String season() {
+        return season;
+    }
+
+    @Override
+    public String weather() {
+        return weather;
+    }
+
+    @Override
+    public String scene() {
+        return scene;
+    }
 }
\ No newline at end of file
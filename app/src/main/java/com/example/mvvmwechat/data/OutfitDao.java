@@ -1,9 +1,13 @@
 package com.example.mvvmwechat.data;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
-import androidx.room.Insert;
-import androidx.room.OnConflictStrategy; // ⚠️ 新增导入
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Upsert;
+
+import androidx.paging.PagingSource;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import java.util.List;
 
@@ -12,19 +16,40 @@ public interface OutfitDao {
 
     // --- 原有方法保持不变 ---
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE) // 建议加上 REPLACE 策略
+    // 用 Upsert 而不是 REPLACE：REPLACE 会先删旧行且不触发删除触发器，导致 outfits_fts 索引残留
+    @Upsert
     void insert(Outfit outfit);
 
     @Query("SELECT * FROM outfits")
     List<Outfit> getAll();
 
+    /**
+     * 可观察版本：outfits 表变化时 Room 自动重新查询并发出新结果
+     */
+    @Query("SELECT * FROM outfits")
+    LiveData<List<Outfit>> observeAll();
+
     // 简单筛选示例
     @Query("SELECT * FROM outfits WHERE (gender = :gender OR :gender = 'all') AND (style = :style OR :style = '')")
     List<Outfit> filter(String gender, String style);
 
-    // 关键字搜索
-    @Query("SELECT * FROM outfits WHERE title LIKE :keyword OR style LIKE :keyword")
-    List<Outfit> search(String keyword);
+    /**
+     * 多条件组合筛选：SQL 由 OutfitFilter.toQuery() 生成
+     */
+    @RawQuery(observedEntities = Outfit.class)
+    List<Outfit> query(SupportSQLiteQuery query);
+
+    /**
+     * 可观察版本的组合筛选
+     */
+    @RawQuery(observedEntities = Outfit.class)
+    LiveData<List<Outfit>> observeQuery(SupportSQLiteQuery query);
+
+    /**
+     * 分页版本的组合筛选：Room 自动在 query 外面套 LIMIT/OFFSET，表变化时自动失效重新加载
+     */
+    @RawQuery(observedEntities = Outfit.class)
+    PagingSource<Integer, Outfit> pagingSource(SupportSQLiteQuery query);
 
     // --- ⚠️ 新增以下两个方法，Repository 里的 refreshFromNetwork 需要它们 ---
 
@@ -32,7 +57,7 @@ public interface OutfitDao {
      * 批量插入数据（用于网络同步）
      * 如果 ID 冲突，直接覆盖旧数据
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    @Upsert
     void insertAll(List<Outfit> outfits);
 
     /**
@@ -40,4 +65,50 @@ public interface OutfitDao {
      */
     @Query("DELETE FROM outfits")
     void deleteAll();
+
+    // --- 增量同步使用：只写入发生变化的行 ---
+
+    /**
+     * 按主键插入或更新（不会像 REPLACE 那样先删除旧行）
+     */
+    @Upsert
+    void upsertAll(List<Outfit> outfits);
+
+    /**
+     * 按 id 集合删除；调用方需要自行分批，单次不超过 SQLite 的 999 个参数限制
+     */
+    @Query("DELETE FROM outfits WHERE id IN (:ids)")
+    void deleteByIds(List<Long> ids);
+
+    /**
+     * 筛选列的分组计数（不同组合的数量远小于穿搭数），供筛选对话框在内存中汇总各选项的条数
+     * outfits 表变化时自动重新查询
+     */
+    @Query("SELECT gender, style, season, weather, scene, COUNT(*) AS outfitCount FROM outfits"
+            + " GROUP BY gender, style, season, weather, scene")
+    LiveData<List<FacetRow>> observeFacetCube();
+
+    /**
+     * 排序特征列，按 id 排序；供 OutfitRanker 预计算
+     */
+    @Query("SELECT id, gender, style, season, weather, scene FROM outfits ORDER BY id")
+    List<OutfitTraits> getAllTraits();
+
+    /**
+     * 建内存索引用的列，按 id 排序；供 OutfitIndex 构建
+     */
+    @Query("SELECT id, title, gender, style, season, weather, scene FROM outfits ORDER BY id")
+    List<OutfitIndexRow> getAllIndexRows();
+
+    /**
+     * 按 id 读取整行（顺序不保证）；调用方需要自行分批，单次不超过 999 个参数
+     */
+    @Query("SELECT * FROM outfits WHERE id IN (:ids)")
+    List<Outfit> getByIds(List<Long> ids);
+
+    /**
+     * 只读取主键，用于全量快照时找出本地多余的数据
+     */
+    @Query("SELECT id FROM outfits")
+    List<Long> getAllIds();
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.example.mvvmwechat.data;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.example.mvvmwechat.core.TagSplitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * OutfitFilter - 穿搭列表的筛选 + 排序条件（不可变）
+ *
+ * toQuery() 把条件拼成一条 SQL 交给 OutfitDao.query() 在 SQLite 中执行，
+ * 语义与原来的内存筛选一致：
+ *  - gender：等于所选性别或 unisex 都算匹配（gender 在写库时统一转成小写）
+ *  - style/season/weather/scene：按标签匹配（outfit_tags 表，走索引）。条件和穿搭的字段都由 TagSplitter 拆成标签，
+ *    "春" 能匹配 "春夏"；条件拆出多个标签时要求全部带有（"春夏" 只匹配同时带春和夏的）
+ *  - keyword：在 outfits_fts 全文索引中做前缀匹配（title/style/scene/season/weather）
+ */
+public class OutfitFilter {
+    public static final String SORT_STYLE = "style";
+    public static final String SORT_SEASON = "season";
+    public static final String SORT_WEATHER = "weather";
+    // 今日推荐：由 OutfitRanker 在内存中打分选出前几条，不走分页；toQuery() 对它按风格排序
+    public static final String SORT_RECOMMEND = "recommend";
+
+    public final String gender;
+    public final String style;
+    public final String season;
+    public final String weather;
+    public final String scene;
+    public final String keyword;
+    public final String sortMode;
+
+    public OutfitFilter(String gender, String style, String season, String weather,
+                        String scene, String keyword, String sortMode) {
+        this.gender = normalize(gender);
+        this.style = normalize(style);
+        this.season = normalize(season);
+        this.weather = normalize(weather);
+        this.scene = normalize(scene);
+        this.keyword = normalize(keyword);
+        this.sortMode = sortMode == null ? SORT_STYLE : sortMode;
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase();
+    }
+
+    /**
+     * 换一个关键字，其它条件不变
+     */
+    public OutfitFilter withKeyword(String newKeyword) {
+        return new OutfitFilter(gender, style, season, weather, scene, newKeyword, sortMode);
+    }
+
+    /**
+     * 生成 SQL 查询（参数全部走绑定，不拼接用户输入）
+     */
+    public SupportSQLiteQuery toQuery() {
+        List<Object> args = new ArrayList<>();
+        List<String> clauses = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM outfits");
+        addFacetClauses(clauses, args);
+        // 关键字走 outfits_fts 全文索引（前缀匹配），不再对 title/style 做 LIKE 扫描
+        String match = FtsQuery.of(keyword);
+        if (match != null) {
+            clauses.add("outfits.id IN (SELECT docid FROM outfits_fts WHERE outfits_fts MATCH ?)");
+            args.add(match);
+        }
+        appendWhere(sql, clauses);
+        appendOrderBy(sql);
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    // 列名都带上 outfits. 前缀，和标签、全文索引的子查询不会有歧义
+    private void addFacetClauses(List<String> clauses, List<Object> args) {
+        // 性别走 index_outfits_gender
+        if (!gender.isEmpty() && !gender.equals("all")) {
+            clauses.add("outfits.gender IN (?, 'unisex')");
+            args.add(gender);
+        }
+        addTags(clauses, args, TagSplitter.STYLE, style);
+        addTags(clauses, args, TagSplitter.SEASON, season);
+        addTags(clauses, args, TagSplitter.WEATHER, weather);
+        addTags(clauses, args, TagSplitter.SCENE, scene);
+    }
+
+    private static void appendWhere(StringBuilder sql, List<String> clauses) {
+        for (int i = 0; i < clauses.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(clauses.get(i));
+        }
+    }
+
+    private void appendOrderBy(StringBuilder sql) {
+        switch (sortMode) {
+            case SORT_SEASON:
+                // 按季节顺序排序：春 -> 夏 -> 秋 -> 冬，未知季节排最后
+                sql.append(" ORDER BY CASE")
+                        .append(" WHEN instr(outfits.season, '春') > 0 THEN 1")
+                        .append(" WHEN instr(outfits.season, '夏') > 0 THEN 2")
+                        .append(" WHEN instr(outfits.season, '秋') > 0 THEN 3")
+                        .append(" WHEN instr(outfits.season, '冬') > 0 THEN 4")
+                        .append(" ELSE 99 END, outfits.id");
+                break;
+            case SORT_WEATHER:
+                // 按天气顺序排序：晴 -> 阴 -> 雨 -> 雪
+                sql.append(" ORDER BY CASE")
+                        .append(" WHEN instr(outfits.weather, '晴') > 0 THEN 1")
+                        .append(" WHEN instr(outfits.weather, '阴') > 0 THEN 2")
+                        .append(" WHEN instr(outfits.weather, '雨') > 0 THEN 3")
+                        .append(" WHEN instr(outfits.weather, '雪') > 0 THEN 4")
+                        .append(" ELSE 99 END, outfits.id");
+                break;
+            case SORT_STYLE:
+            default:
+                // NULL 排在最前，与原来把 null 当 "" 比较的结果一致；可直接走 index_outfits_style
+                sql.append(" ORDER BY outfits.style, outfits.id");
+                break;
+        }
+    }
+
+    // tags 的 (facet, name) 唯一索引查出标签 id，再按 outfit_tags 主键 (tagId, outfitId) 取穿搭；
+    // 多个标签时按穿搭分组，要求命中全部标签
+    private static void addTags(List<String> clauses, List<Object> args, String facet, String value) {
+        List<String> tags = TagSplitter.split(facet, value);
+        if (tags.isEmpty()) return;
+        StringBuilder sql = new StringBuilder("outfits.id IN (SELECT ot.outfitId FROM outfit_tags ot")
+                .append(" JOIN tags t ON t.id = ot.tagId WHERE t.facet = ? AND t.name IN (");
+        args.add(facet);
+        for (int i = 0; i < tags.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args.add(tags.get(i));
+        }
+        sql.append(")");
+        if (tags.size() > 1) {
+            sql.append(" GROUP BY ot.outfitId HAVING COUNT(*) = ?");
+            args.add(tags.size());
+        }
+        clauses.add(sql.append(")").toString());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OutfitFilter)) return false;
+        OutfitFilter f = (OutfitFilter) o;
+        return gender.equals(f.gender) && style.equals(f.style) && season.equals(f.season)
+                && weather.equals(f.weather) && scene.equals(f.scene)
+                && keyword.equals(f.keyword) && sortMode.equals(f.sortMode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(gender, style, season, weather, scene, keyword, sortMode);
+    }
+}
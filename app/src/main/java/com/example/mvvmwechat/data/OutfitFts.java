@@ -0,0 +1,21 @@
+package com.example.mvvmwechat.data;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * OutfitFts - outfits 表的 FTS4 全文索引（外部内容表，数据本身仍只存在 outfits 中）
+ *
+ * - Room 会在 outfits 上建触发器，增删改时自动同步索引
+ * - 使用 ICU 分词器：中文标签（甜美、休闲、约会…）按词切分，英文按单词切分
+ */
+@Fts4(contentEntity = Outfit.class, tokenizer = FtsOptions.TOKENIZER_ICU)
+@Entity(tableName = "outfits_fts")
+public class OutfitFts {
+    public String title;
+    public String style;
+    public String scene;
+    public String season;
+    public String weather;
+}
@@ -0,0 +1,15 @@
+package com.example.mvvmwechat.data;
+
+import com.example.mvvmwechat.core.OutfitIndex;
+
+/**
+ * OutfitIndexRow - 建内存索引（OutfitIndex）用的列：排序特征列 + 标题
+ */
+public class OutfitIndexRow extends OutfitTraits implements OutfitIndex.Entry {
+    public String title;
+
+    @Override
+    public String title() {
+        return title;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.mvvmwechat.data;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * OutfitTag - 穿搭与标签的关联
+ *
+ * 主键 (tagId, outfitId)：按标签找穿搭直接走主键索引；(outfitId, tagId) 索引用于改写某件穿搭的标签和级联删除
+ * 穿搭被删除时关联随之删除
+ */
+@Entity(tableName = "outfit_tags",
+        primaryKeys = {"tagId", "outfitId"},
+        foreignKeys = {
+                @ForeignKey(entity = Outfit.class, parentColumns = "id", childColumns = "outfitId",
+                        onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = Tag.class, parentColumns = "id", childColumns = "tagId",
+                        onDelete = ForeignKey.CASCADE)
+        },
+        indices = {@Index(value = {"outfitId", "tagId"})})
+public class OutfitTag {
+    public long outfitId;
+    public long tagId;
+
+    public OutfitTag() {}
+
+    @Ignore
+    public OutfitTag(long outfitId, long tagId) {
+        this.outfitId = outfitId;
+        this.tagId = tagId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mvvmwechat.data;
+
+import com.example.mvvmwechat.core.CatalogItem;
+
+/**
+ * OutfitTraits - 只读取排序用到的列（不含标题、图片地址），用于 OutfitRanker 预计算特征
+ */
+public class OutfitTraits implements CatalogItem {
+    public long id;
+    public String gender;
+    public String style;
+    public String season;
+    public String weather;
+    public String scene;
+
+    @Override
+    public long itemId() {
+        return id;
+    }
+
+    @Override
+    public String gender() {
+        return gender;
+    }
+
+    @Override
+    public String style() {
+        return style;
+    }
+
+    @Override
+    public String season() {
+        return season;
+    }
+
+    @Override
+    public String weather() {
+        return weather;
+    }
+
+    @Override
+    public String scene() {
+        return scene;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.mvvmwechat.data;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
@@ -12,4 +13,8 @@ public interface SettingDao {
 
     @Query("SELECT value FROM settings WHERE key = :key LIMIT 1")
     String get(String key);
+
+    // 可观察版本：settings 表任意一行变化都会重新查询，调用方需要自行去重
+    @Query("SELECT value FROM settings WHERE key = :key LIMIT 1")
+    LiveData<String> observe(String key);
 }
@@ -0,0 +1,24 @@
+package com.example.mvvmwechat.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Tag - 标签字典：某个筛选维度（facet）下的一个取值，例如 season / 春
+ * 由 TagSplitter 从 Outfit 的文本字段拆出来，名字统一小写
+ */
+@Entity(tableName = "tags",
+        indices = {@Index(value = {"facet", "name"}, unique = true)})
+public class Tag {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    // TagSplitter.STYLE / SEASON / WEATHER / SCENE
+    @NonNull
+    public String facet = "";
+
+    @NonNull
+    public String name = "";
+}
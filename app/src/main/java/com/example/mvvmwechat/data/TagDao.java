@@ -0,0 +1,27 @@
+package com.example.mvvmwechat.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface TagDao {
+    // (facet, name) 上有唯一索引：已存在时忽略，返回 -1
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertTag(Tag tag);
+
+    @Query("SELECT id FROM tags WHERE facet = :facet AND name = :name LIMIT 1")
+    Long findId(String facet, String name);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertLinks(List<OutfitTag> links);
+
+    /**
+     * 删除这些穿搭的全部标签（改写前调用）；调用方需要自行分批，单次不超过 999 个参数
+     */
+    @Query("DELETE FROM outfit_tags WHERE outfitId IN (:outfitIds)")
+    void deleteLinks(List<Long> outfitIds);
+}
@@ -0,0 +1,58 @@
+package com.example.mvvmwechat.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * TryOnJob - 一次换装任务（持久化，进程被杀后可以继续轮询）
+ *
+ * inputsHash = 人像 + 衣服 + 类别的摘要，相同输入只会有一条任务，不会重复上传/扣费
+ * 状态：pending（待提交）-> submitted（已拿到 jobId，轮询中）-> completed / failed
+ */
+@Entity(tableName = "try_on_jobs",
+        indices = {
+                @Index(value = "inputsHash", unique = true),
+                @Index("status")
+        })
+public class TryOnJob {
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_SUBMITTED = "submitted";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_FAILED = "failed";
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    @NonNull
+    public String inputsHash = "";
+    public String personHash;
+    public String garmentHash;
+
+    // 输入图片按内容摘要保存在 filesDir 下，重启后仍然可以重新提交；任务结束后删除，重新提交时再从调用方的文件保存
+    public String personPath;
+    public String garmentPath;
+    // 输入图片的 MIME 类型（来自 ImagePreparer），上传时直接使用，不再重新解析文件
+    public String personType;
+    public String garmentType;
+    public String category;
+
+    // 服务端返回的任务 id
+    public String jobId;
+    @NonNull
+    public String status = STATUS_PENDING;
+    public String resultUrl;
+    public String error;
+    // 已提交的次数
+    public int attempts;
+    // 当前这次提交的幂等键：开始提交时写入，进程被杀后恢复时沿用，后端不会当成新的提交重复扣费
+    public String idempotencyKey;
+
+    public long createdAt;
+    public long updatedAt;
+
+    public boolean isFinished() {
+        return STATUS_COMPLETED.equals(status) || STATUS_FAILED.equals(status);
+    }
+}
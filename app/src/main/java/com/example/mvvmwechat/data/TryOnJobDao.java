@@ -0,0 +1,45 @@
+package com.example.mvvmwechat.data;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface TryOnJobDao {
+    // inputsHash 唯一：相同输入已经有任务时忽略，返回 -1
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(TryOnJob job);
+
+    @Query("SELECT * FROM try_on_jobs WHERE inputsHash = :hash LIMIT 1")
+    TryOnJob findByHash(String hash);
+
+    @Query("SELECT * FROM try_on_jobs WHERE inputsHash = :hash LIMIT 1")
+    LiveData<TryOnJob> observeByHash(String hash);
+
+    // 还没结束的任务，按创建顺序恢复
+    @Query("SELECT * FROM try_on_jobs WHERE status IN ('pending', 'submitted') ORDER BY createdAt")
+    List<TryOnJob> getUnfinished();
+
+    // 开始一次提交（新的或恢复的），记下这次提交用的幂等键
+    @Query("UPDATE try_on_jobs SET status = 'pending', jobId = NULL, error = NULL, idempotencyKey = :key,"
+            + " attempts = attempts + 1, updatedAt = :now WHERE id = :id")
+    void beginAttempt(long id, String key, long now);
+
+    // 还要用到这个输入文件的未结束任务数（同样内容的图片只存一份，可能被多个任务共用）
+    @Query("SELECT COUNT(*) FROM try_on_jobs WHERE status IN ('pending', 'submitted')"
+            + " AND (personPath = :path OR garmentPath = :path)")
+    int countUnfinishedUsing(String path);
+
+    @Query("UPDATE try_on_jobs SET status = 'submitted', jobId = :jobId, updatedAt = :now WHERE id = :id")
+    void markSubmitted(long id, String jobId, long now);
+
+    @Query("UPDATE try_on_jobs SET status = 'completed', resultUrl = :url, error = NULL, updatedAt = :now WHERE id = :id")
+    void markCompleted(long id, String url, long now);
+
+    @Query("UPDATE try_on_jobs SET status = 'failed', error = :error, updatedAt = :now WHERE id = :id")
+    void markFailed(long id, String error, long now);
+}
@@ -0,0 +1,30 @@
+package com.example.mvvmwechat.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * TryOnResult - 换装结果缓存的索引（图片文件保存在 cacheDir/tryon_results 下）
+ *
+ * 以 (人像摘要, 衣服摘要, 类别) 为键，相同输入直接返回本地结果图
+ */
+@Entity(tableName = "try_on_results",
+        primaryKeys = {"personHash", "garmentHash", "category"},
+        indices = {@Index("lastAccessAt")})
+public class TryOnResult {
+    @NonNull
+    public String personHash = "";
+    @NonNull
+    public String garmentHash = "";
+    @NonNull
+    public String category = "";
+
+    public String filePath;
+    // 远程结果地址（仅用于排查）
+    public String sourceUrl;
+    public long sizeBytes;
+    public long createdAt;
+    // LRU 淘汰依据
+    public long lastAccessAt;
+}
@@ -0,0 +1,32 @@
+package com.example.mvvmwechat.data;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Query;
+import androidx.room.Upsert;
+
+import java.util.List;
+
+@Dao
+public interface TryOnResultDao {
+    @Query("SELECT * FROM try_on_results WHERE personHash = :personHash AND garmentHash = :garmentHash"
+            + " AND category = :category LIMIT 1")
+    TryOnResult get(String personHash, String garmentHash, String category);
+
+    @Upsert
+    void upsert(TryOnResult result);
+
+    @Query("UPDATE try_on_results SET lastAccessAt = :now WHERE personHash = :personHash"
+            + " AND garmentHash = :garmentHash AND category = :category")
+    void touch(String personHash, String garmentHash, String category, long now);
+
+    @Query("SELECT COALESCE(SUM(sizeBytes), 0) FROM try_on_results")
+    long totalSize();
+
+    // 最久没用过的在前，走 index_try_on_results_lastAccessAt
+    @Query("SELECT * FROM try_on_results ORDER BY lastAccessAt LIMIT :limit")
+    List<TryOnResult> leastRecentlyUsed(int limit);
+
+    @Delete
+    void delete(TryOnResult result);
+}
@@ -4,8 +4,10 @@ package com.example.mvvmwechat.data;
 import android.content.Context;
 
 
+import com.example.mvvmwechat.AppExecutors;
+
+
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 
 public class UserRepository {
@@ -16,7 +18,7 @@ public class UserRepository {
     public UserRepository(Context context) {
         AppDatabase db = AppDatabase.getInstance(context);
         userDao = db.userDao();
-        executorService = Executors.newSingleThreadExecutor();
+        executorService = AppExecutors.getInstance().diskIO();
     }
 
 
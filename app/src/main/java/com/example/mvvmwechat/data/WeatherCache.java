@@ -0,0 +1,31 @@
+package com.example.mvvmwechat.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * WeatherCache - 天气查询结果缓存（OpenWeatherMap 的返回解析一次后存下来）
+ *
+ * bucket 是缓存键："city:<小写城市名>" 或 "geo:<geohash>"，同一个格子里的定位共用一条记录
+ */
+@Entity(tableName = "weather_cache")
+public class WeatherCache {
+    @PrimaryKey
+    @NonNull
+    public String bucket = "";
+
+    // API 返回的地名
+    public String cityName;
+    public String description;
+    public double temperature;
+    // OpenWeatherMap 的天气代码（800 晴、5xx 雨……）
+    public int conditionId;
+    // 对应穿搭的天气标签：晴 / 阴 / 雨 / 雪
+    public String tag;
+    public long fetchedAt;
+
+    public String temperatureText() {
+        return (int) Math.round(temperature) + "°C";
+    }
+}
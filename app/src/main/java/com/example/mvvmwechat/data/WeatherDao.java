@@ -0,0 +1,22 @@
+package com.example.mvvmwechat.data;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Upsert;
+
+@Dao
+public interface WeatherDao {
+    @Query("SELECT * FROM weather_cache WHERE bucket = :bucket LIMIT 1")
+    WeatherCache get(String bucket);
+
+    @Query("SELECT * FROM weather_cache WHERE bucket = :bucket LIMIT 1")
+    LiveData<WeatherCache> observe(String bucket);
+
+    @Upsert
+    void upsert(WeatherCache weather);
+
+    // 清理很久没刷新过的格子
+    @Query("DELETE FROM weather_cache WHERE fetchedAt < :before")
+    int deleteOlderThan(long before);
+}
@@ -6,6 +6,9 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
+import com.example.mvvmwechat.AppExecutors;
+import com.example.mvvmwechat.core.ResultUrls;
+
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -14,6 +17,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URLConnection;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
@@ -29,17 +34,15 @@ import okhttp3.Response;
  *
  * 包含：
  * 1. 同步等待模式 (旧功能)：tryOnReturnUrl, tryOnWithOutfitUrl
- * 2. 异步轮询模式 (新功能)：tryOnAsync (专门适配 tryon-api.com 的 job 机制)
+ * 2. 异步轮询模式 (新功能)：tryOnAsync (专门适配 tryon-api.com 的 job 机制)，轮询由 JobPoller 负责
+ *
+ * 上传统一走 Form + enqueueUpload：文件流式写出、可带进度，断线时用同一个请求体和 Idempotency-Key 重发
  */
 public class AiApi {
     private static final String TAG = "AiApi";
 
-    // 基础 Client 配置
-    private static final OkHttpClient client = new OkHttpClient.Builder()
-            .connectTimeout(60, TimeUnit.SECONDS)
-            .readTimeout(120, TimeUnit.SECONDS)
-            .writeTimeout(120, TimeUnit.SECONDS)
-            .build();
+    // 从共享 client 派生（超时更长），连接池和缓存与其它请求共用
+    private static final OkHttpClient client = HttpClients.upload();
 
     // 默认 endpoint（保留你原来的地址）
     private static final String AI_BASE = "https://tryon-api.com";
@@ -49,6 +52,9 @@ public class AiApi {
     private static final String ENDPOINT_SUBMIT = ASYNC_API_HOST + "/api/v1/tryon";
     private static final String ENDPOINT_STATUS = ASYNC_API_HOST + "/api/v1/tryon/status/";
 
+    // 所有异步任务共用一个轮询器（一个 scheduler 线程）
+    private static final JobPoller poller = new JobPoller(client, AppExecutors.getInstance().scheduler());
+
     public interface UrlCallback {
         void onSuccess(String url); // 返回远程 url 或 本地 file:// uri
         void onError(Exception e);
@@ -70,28 +76,16 @@ public class AiApi {
         Log.d(TAG, "tryOnReturnUrl -> AI_BASE=" + AI_BASE + " userFile=" + userImageFile.getAbsolutePath()
                 + " outfitFile=" + outfitImageFile.getAbsolutePath());
 
-        MediaType imgType = MediaType.get("image/*");
-        RequestBody userBody = RequestBody.create(userImageFile, imgType);
-        RequestBody outfitBody = RequestBody.create(outfitImageFile, imgType);
-
-        MultipartBody body = new MultipartBody.Builder().setType(MultipartBody.FORM)
-                .addFormDataPart("user_image", userImageFile.getName(), userBody)
-                .addFormDataPart("outfit_image", outfitImageFile.getName(), outfitBody)
+        RequestBody body = new Form()
+                .file("user_image", userImageFile)
+                .file("outfit_image", outfitImageFile)
                 // 兼容原来示例中带的 preserve_color
-                .addFormDataPart("preserve_color", "true")
-                .build();
+                .field("preserve_color", "true")
+                .build(null);
 
-        Request.Builder rb = new Request.Builder()
-                .url(AI_BASE)
-                .post(body);
+        Request req = uploadRequest(AI_BASE, apiKey, UUID.randomUUID().toString(), body);
 
-        if (apiKey != null && !apiKey.trim().isEmpty()) {
-            rb.addHeader("Authorization", "Bearer " + apiKey.trim());
-        }
-
-        Request req = rb.build();
-
-        client.newCall(req).enqueue(new okhttp3.Callback() {
+        enqueueUpload(null, req, new okhttp3.Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 Log.e(TAG, "tryOnReturnUrl HTTP failure: " + e.getMessage(), e);
@@ -115,26 +109,15 @@ public class AiApi {
 
         Log.d(TAG, "tryOnWithOutfitUrl -> AI_BASE=" + AI_BASE + " outfitImageUrl=" + outfitImageUrl);
 
-        MediaType imgType = MediaType.get("image/*");
-        RequestBody userBody = RequestBody.create(userImageFile, imgType);
+        RequestBody body = new Form()
+                .file("user_image", userImageFile)
+                .field("outfit_image_url", outfitImageUrl)
+                .field("preserve_color", "true")
+                .build(null);
 
-        MultipartBody body = new MultipartBody.Builder().setType(MultipartBody.FORM)
-                .addFormDataPart("user_image", userImageFile.getName(), userBody)
-                .addFormDataPart("outfit_image_url", outfitImageUrl)
-                .addFormDataPart("preserve_color", "true")
-                .build();
-
-        Request.Builder rb = new Request.Builder()
-                .url(AI_BASE)
-                .post(body);
+        Request req = uploadRequest(AI_BASE, apiKey, UUID.randomUUID().toString(), body);
 
-        if (apiKey != null && !apiKey.trim().isEmpty()) {
-            rb.addHeader("Authorization", "Bearer " + apiKey.trim());
-        }
-
-        Request req = rb.build();
-
-        client.newCall(req).enqueue(new okhttp3.Callback() {
+        enqueueUpload(null, req, new okhttp3.Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 Log.e(TAG, "tryOnWithOutfitUrl HTTP failure: " + e.getMessage(), e);
@@ -153,52 +136,86 @@ public class AiApi {
     //  流程：提交图片 -> 获取 jobId -> 轮询状态 -> 获取最终 URL
     // ============================================================================================
 
+    // 默认的换装类别
+    public static final String CATEGORY_ONE_PIECES = "one-pieces";
+
+    /**
+     * 提交结果回调（在 OkHttp 的后台线程回调）
+     */
+    public interface SubmitCallback {
+        // etaMs 为服务器给出的预计耗时，没有时为 -1
+        void onSubmitted(String jobId, long etaMs);
+        void onError(Exception e);
+    }
+
     /**
      * 新增：专门适配 tryon-api.com 的异步方法
      * 参数名变更为 person_images 和 garment_images
+     * @return 任务句柄，调用 cancel() 后不再提交/轮询，也不会再回调
      */
-    public static void tryOnAsync(Context ctx, File userFile, File outfitFile, String apiKey, UrlCallback cb) {
+    public static JobPoller.Handle tryOnAsync(Context ctx, File userFile, File outfitFile, String apiKey, UrlCallback cb) {
         Handler main = new Handler(Looper.getMainLooper());
+        JobPoller.Handle handle = new JobPoller.Handle();
+        submitTryOn(handle, userFile, null, outfitFile, null, CATEGORY_ONE_PIECES, apiKey, UUID.randomUUID().toString(),
+                null, new SubmitCallback() {
+            @Override
+            public void onSubmitted(String jobId, long etaMs) {
+                // 提交返回里有预计耗时时，第一次查询就等到那个时候
+                pollTryOn(handle, jobId, apiKey, etaMs, cb);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                main.post(() -> {
+                    if (!handle.isCancelled()) cb.onError(e);
+                });
+            }
+        });
+        return handle;
+    }
 
+    /**
+     * 只提交任务拿到 jobId，不轮询；调用方可以先把 jobId 保存下来再调用 pollTryOn
+     * @param idempotencyKey 同一次提交的重发都带这个 key，服务端据此避免重复建任务
+     * @param userType / outfitType 图片的 MIME 类型（ImagePreparer.Result.mimeType），未知时为 null
+     * @param progress 上传进度，可为 null
+     */
+    public static void submitTryOn(JobPoller.Handle handle, File userFile, String userType, File outfitFile,
+                                   String outfitType, String category, String apiKey, String idempotencyKey,
+                                   UploadProgress.Listener progress, SubmitCallback cb) {
         if (userFile == null || outfitFile == null) {
-            main.post(() -> cb.onError(new IllegalArgumentException("Images cannot be null for async try-on")));
+            cb.onError(new IllegalArgumentException("Images cannot be null for async try-on"));
             return;
         }
 
         Log.d(TAG, "tryOnAsync -> Submitting to " + ENDPOINT_SUBMIT);
 
         // 1. 准备请求体 (注意参数名根据 tryon-api 文档调整)
-        MediaType imgType = MediaType.parse("image/png");
-        RequestBody userBody = RequestBody.create(userFile, imgType);
-        RequestBody outfitBody = RequestBody.create(outfitFile, imgType);
-
-        MultipartBody body = new MultipartBody.Builder().setType(MultipartBody.FORM)
-                .addFormDataPart("person_images", userFile.getName(), userBody)
-                .addFormDataPart("garment_images", outfitFile.getName(), outfitBody)
+        RequestBody body = new Form()
+                .file("person_images", userFile, userType)
+                .file("garment_images", outfitFile, outfitType)
                 // 可选参数，根据需要开启
-                .addFormDataPart("category", "one-pieces")
-                .build();
+                .field("category", category == null ? CATEGORY_ONE_PIECES : category)
+                .build(progress);
 
-        Request request = new Request.Builder()
-                .url(ENDPOINT_SUBMIT)
-                .addHeader("Authorization", "Bearer " + apiKey)
-                .post(body)
-                .build();
+        Request request = uploadRequest(ENDPOINT_SUBMIT, apiKey, idempotencyKey, body);
 
-        // 2. 提交任务
-        client.newCall(request).enqueue(new okhttp3.Callback() {
+        // 2. 提交任务（连接中断时用同一个请求体重发）
+        enqueueUpload(handle, request, new okhttp3.Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
+                if (handle.isCancelled()) return;
                 Log.e(TAG, "tryOnAsync submit failed", e);
-                main.post(() -> cb.onError(e));
+                cb.onError(e);
             }
 
             @Override
             public void onResponse(Call call, Response response) {
                 try {
+                    if (handle.isCancelled()) return;
                     String respStr = response.body() != null ? response.body().string() : "";
                     if (!response.isSuccessful()) {
-                        main.post(() -> cb.onError(new Exception("Async Submit Failed: " + response.code() + " " + snippet(respStr, 200))));
+                        cb.onError(new Exception("Async Submit Failed: " + response.code() + " " + snippet(respStr, 200)));
                         return;
                     }
 
@@ -211,17 +228,15 @@ public class AiApi {
                     if (jobId.isEmpty()) jobId = json.optString("id");    // 常见字段名3
 
                     if (jobId.isEmpty()) {
-                        main.post(() -> cb.onError(new Exception("No jobId found in response: " + snippet(respStr, 200))));
+                        cb.onError(new Exception("No jobId found in response: " + snippet(respStr, 200)));
                         return;
                     }
 
-                    Log.d(TAG, "tryOnAsync -> Job Submitted. ID=" + jobId + ". Starting Polling...");
-
-                    // 3. 开始轮询
-                    startPolling(jobId, apiKey, main, cb);
+                    Log.d(TAG, "tryOnAsync -> Job Submitted. ID=" + jobId);
+                    cb.onSubmitted(jobId, JobPoller.etaMs(json));
 
                 } catch (Exception e) {
-                    main.post(() -> cb.onError(e));
+                    cb.onError(e);
                 } finally {
                     if (response.body() != null) response.close();
                 }
@@ -230,114 +245,187 @@ public class AiApi {
     }
 
     /**
-     * 内部方法：轮询状态
+     * 轮询已提交任务的状态，完成后从返回中取出结果 URL（在主线程回调）
+     * 进程重启后可以用保存的 jobId 直接调用，不需要重新提交
      */
-    private static void startPolling(String jobId, String apiKey, Handler main, UrlCallback cb) {
-        new Thread(() -> {
-            int retryCount = 0;
-            int maxRetries = 100; // 约 80秒
-            int sleepTime = 3000;
-            boolean isFinished = false;
-
-            while (retryCount < maxRetries && !isFinished) {
-                try {
-                    Thread.sleep(sleepTime); // 间隔 2秒
-                    retryCount++;
-
-                    String statusUrl = ENDPOINT_STATUS + jobId;
-                    Request request = new Request.Builder()
-                            .url(statusUrl)
-                            .addHeader("Authorization", "Bearer " + apiKey)
-                            .get()
-                            .build();
-
-                    try (Response response = client.newCall(request).execute()) {
-                        if (!response.isSuccessful()) {
-                            Log.w(TAG, "Polling network error: " + response.code());
-                            continue;
-                        }
-
-                        String respStr = response.body() != null ? response.body().string() : "{}";
-                        Log.d(TAG, "Polling Response (" + jobId + "): " + respStr);
-
-                        JSONObject json = new JSONObject(respStr);
-                        String status = json.optString("status").toLowerCase();
-
-                        if ("completed".equals(status) || "success".equals(status)) {
-                            isFinished = true;
-                            String finalUrl = null;
-
-                            // ================== 修改开始 ==================
-                            // 逻辑必须是用 else if 连接的单链条，防止被覆盖
-
-                            // 1. 优先匹配日志中出现的 "imageUrl"
-                            if (json.has("imageUrl")) {
-                                finalUrl = json.optString("imageUrl");
-                            }
-                            // 2. 尝试直接取 output_url
-                            else if (json.has("output_url")) { // 【这里加上了 else】
-                                finalUrl = json.optString("output_url");
-                            }
-                            // 3. 尝试取 result (可能是字符串或对象)
-                            else if (json.has("result")) {
-                                Object res = json.get("result");
-                                if (res instanceof JSONObject) {
-                                    JSONObject resObj = (JSONObject) res;
-                                    finalUrl = resObj.optString("renderedImageUrl");
-                                    if (finalUrl.isEmpty()) finalUrl = resObj.optString("url");
-                                } else if (res instanceof String) {
-                                    finalUrl = (String) res;
-                                }
-                            }
-                            // 4. 尝试取 outputs 数组
-                            else if (json.has("outputs")) {
-                                JSONArray outs = json.optJSONArray("outputs");
-                                if (outs != null && outs.length() > 0) {
-                                    Object first = outs.get(0);
-                                    if (first instanceof String) {
-                                        finalUrl = (String) first;
-                                    } else if (first instanceof JSONObject) {
-                                        finalUrl = ((JSONObject) first).optString("url");
-                                    }
-                                }
-                            }
-                            // ================== 修改结束 ==================
-
-                            if (finalUrl != null && !finalUrl.isEmpty() && finalUrl.startsWith("http")) {
-                                final String urlResult = finalUrl;
-                                Log.d(TAG, "Found Final URL: " + urlResult);
-                                main.post(() -> cb.onSuccess(urlResult));
-                            } else {
-                                Log.e(TAG, "Job completed but JSON parse failed. Body: " + respStr);
-                                main.post(() -> cb.onError(new Exception("Job completed but no URL found in response.")));
-                            }
-
-                        } else if ("failed".equals(status) || "error".equals(status)) {
-                            isFinished = true;
-                            String msg = json.optString("message", json.optString("error", "Unknown error"));
-                            Log.e(TAG, "Job Failed. Body: " + respStr);
-                            main.post(() -> cb.onError(new Exception("AI Job Failed: " + msg)));
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Polling exception", e);
-                    if (retryCount > 5 && e instanceof InterruptedException) {
-                        isFinished = true;
-                        main.post(() -> cb.onError(e));
+    public static void pollTryOn(JobPoller.Handle handle, String jobId, String apiKey, long firstDelayMs, UrlCallback cb) {
+        poller.poll(handle, ENDPOINT_STATUS + jobId, apiKey, firstDelayMs, new JobPoller.Listener() {
+            @Override
+            public void onCompleted(JSONObject json) {
+                String finalUrl = extractResultUrl(json);
+                if (finalUrl != null && !finalUrl.isEmpty() && finalUrl.startsWith("http")) {
+                    Log.d(TAG, "Found Final URL: " + finalUrl);
+                    cb.onSuccess(finalUrl);
+                } else {
+                    Log.e(TAG, "Job completed but JSON parse failed. Body: " + json);
+                    cb.onError(new Exception("Job completed but no URL found in response."));
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    // 逻辑必须是用 else if 连接的单链条，防止被覆盖
+    private static String extractResultUrl(JSONObject json) {
+        String finalUrl = null;
+        try {
+            // 1. 优先匹配日志中出现的 "imageUrl"
+            if (json.has("imageUrl")) {
+                finalUrl = json.optString("imageUrl");
+            }
+            // 2. 尝试直接取 output_url
+            else if (json.has("output_url")) {
+                finalUrl = json.optString("output_url");
+            }
+            // 3. 尝试取 result (可能是字符串或对象)
+            else if (json.has("result")) {
+                Object res = json.get("result");
+                if (res instanceof JSONObject) {
+                    JSONObject resObj = (JSONObject) res;
+                    finalUrl = resObj.optString("renderedImageUrl");
+                    if (finalUrl.isEmpty()) finalUrl = resObj.optString("url");
+                } else if (res instanceof String) {
+                    finalUrl = (String) res;
+                }
+            }
+            // 4. 尝试取 outputs 数组
+            else if (json.has("outputs")) {
+                JSONArray outs = json.optJSONArray("outputs");
+                if (outs != null && outs.length() > 0) {
+                    Object first = outs.get(0);
+                    if (first instanceof String) {
+                        finalUrl = (String) first;
+                    } else if (first instanceof JSONObject) {
+                        finalUrl = ((JSONObject) first).optString("url");
                     }
                 }
             }
+        } catch (JSONException e) {
+            Log.w(TAG, "extractResultUrl JSONException: " + e.getMessage());
+        }
+        return finalUrl;
+    }
 
-            if (!isFinished) {
-                main.post(() -> cb.onError(new Exception("Try-on operation timed out.")));
+    /**
+     * 同步下载到指定文件（先写临时文件再改名，不会留下半个文件），必须在后台线程调用
+     * @return 文件大小
+     */
+    public static long download(String url, File dst) throws IOException {
+        Request request = new Request.Builder().url(url).get().build();
+        File tmp = new File(dst.getPath() + ".tmp");
+        try (Response response = HttpClients.download().newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Download failed: HTTP " + response.code());
+            }
+            try (InputStream in = response.body().byteStream();
+                 FileOutputStream out = new FileOutputStream(tmp)) {
+                byte[] buf = new byte[8192];
+                int len;
+                while ((len = in.read(buf)) != -1) out.write(buf, 0, len);
             }
-        }).start();
+        }
+        if (!tmp.renameTo(dst)) {
+            tmp.delete();
+            throw new IOException("Rename failed: " + dst);
+        }
+        return dst.length();
     }
 
     // ============================================================================================
     //  SECTION 3: 辅助与工具方法 (保持原有逻辑)
     // ============================================================================================
 
+    // 上传请求最多发几次（连接中断 / 网关错误时重发）
+    private static final int MAX_UPLOAD_ATTEMPTS = 3;
+    private static final long UPLOAD_RETRY_DELAY_MS = 2000;
+
+    /**
+     * 三个上传接口共用的 multipart 构造：文件部分从磁盘流式读取，可以重复写出
+     */
+    static final class Form {
+        private final MultipartBody.Builder builder = new MultipartBody.Builder().setType(MultipartBody.FORM);
+
+        Form file(String name, File f) {
+            return file(name, f, null);
+        }
+
+        // mimeType 由调用方给出（ImagePreparer 编码时就知道），不在这里解析文件
+        Form file(String name, File f, String mimeType) {
+            builder.addFormDataPart(name, f.getName(), ProgressRequestBody.ofFile(f, imageType(f, mimeType)));
+            return this;
+        }
+
+        Form field(String name, String value) {
+            builder.addFormDataPart(name, value);
+            return this;
+        }
+
+        RequestBody build(UploadProgress.Listener progress) {
+            MultipartBody body = builder.build();
+            return progress == null ? body : new ProgressRequestBody(body, progress);
+        }
+    }
+
+    private static Request uploadRequest(String url, String apiKey, String idempotencyKey, RequestBody body) {
+        Request.Builder rb = new Request.Builder()
+                .url(url)
+                .header("Idempotency-Key", idempotencyKey)
+                .post(body);
+        if (apiKey != null && !apiKey.trim().isEmpty()) {
+            rb.addHeader("Authorization", "Bearer " + apiKey.trim());
+        }
+        return rb.build();
+    }
+
+    /**
+     * 发出上传请求；连接中断或 502/503/504 时隔一会用同一个 Request 重发（请求体可重复写，
+     * Idempotency-Key 不变，服务端收到过的话不会重复建任务）
+     * @param handle 可为 null；取消后不再重发，也不再回调
+     */
+    private static void enqueueUpload(JobPoller.Handle handle, Request request, okhttp3.Callback cb) {
+        enqueueUpload(handle, request, cb, 1);
+    }
+
+    private static void enqueueUpload(JobPoller.Handle handle, Request request, okhttp3.Callback cb, int attempt) {
+        if (handle != null && handle.isCancelled()) return;
+        Call call = client.newCall(request);
+        if (handle != null) handle.setCall(call);
+        call.enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                if (c.isCanceled() || (handle != null && handle.isCancelled())) {
+                    cb.onFailure(c, e);
+                } else if (attempt < MAX_UPLOAD_ATTEMPTS) {
+                    Log.w(TAG, "upload attempt " + attempt + " failed, retrying: " + e.getMessage());
+                    retryUpload(handle, request, cb, attempt);
+                } else {
+                    cb.onFailure(c, e);
+                }
+            }
+
+            @Override
+            public void onResponse(Call c, Response response) throws IOException {
+                int code = response.code();
+                if ((code == 502 || code == 503 || code == 504) && attempt < MAX_UPLOAD_ATTEMPTS) {
+                    Log.w(TAG, "upload attempt " + attempt + " got HTTP " + code + ", retrying");
+                    response.close();
+                    retryUpload(handle, request, cb, attempt);
+                } else {
+                    cb.onResponse(c, response);
+                }
+            }
+        });
+    }
+
+    private static void retryUpload(JobPoller.Handle handle, Request request, okhttp3.Callback cb, int attempt) {
+        AppExecutors.getInstance().scheduler().schedule(() -> enqueueUpload(handle, request, cb, attempt + 1),
+                UPLOAD_RETRY_DELAY_MS * attempt, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * 抽取了原来在 onResponse 里重复的逻辑，用于处理同步请求
      */
@@ -365,7 +453,7 @@ public class AiApi {
                     return;
                 }
 
-                String found = parseUrlFromJson(bodyStr);
+                String found = ResultUrls.find(bodyStr);
                 if (found != null) {
                     final String urlFinal = found;
                     main.post(() -> cb.onSuccess(urlFinal));
@@ -399,7 +487,7 @@ public class AiApi {
                 main.post(() -> cb.onError(new Exception("Unexpected HTML response in fallback")));
                 return;
             }
-            String found = parseUrlFromJson(bodyStr);
+            String found = ResultUrls.find(bodyStr);
             if (found != null) {
                 main.post(() -> cb.onSuccess(found));
             } else {
@@ -414,95 +502,20 @@ public class AiApi {
         }
     }
 
-    // 保持原来的解析逻辑不变
-    private static String parseUrlFromJson(String jsonStr) {
-        if (jsonStr == null || jsonStr.trim().isEmpty()) return null;
-        try {
-            JSONObject jo = new JSONObject(jsonStr);
-
-            String[] directKeys = new String[]{"result_url", "result", "url", "image_url", "output_url", "output"};
-            for (String k : directKeys) {
-                if (jo.has(k)) {
-                    Object v = jo.opt(k);
-                    if (v != null) {
-                        String s = v.toString();
-                        if (looksLikeUrl(s)) return s;
-                    }
-                }
-            }
-
-            if (jo.has("data")) {
-                Object data = jo.get("data");
-                if (data instanceof JSONObject) {
-                    JSONObject djo = (JSONObject) data;
-                    String[] keys = new String[]{"result_url", "url", "image_url", "output_url", "output"};
-                    for (String k : keys) {
-                        if (djo.has(k)) {
-                            String s = djo.optString(k, null);
-                            if (looksLikeUrl(s)) return s;
-                        }
-                    }
-                } else if (data instanceof JSONArray) {
-                    JSONArray arr = (JSONArray) data;
-                    if (arr.length() > 0) {
-                        Object first = arr.get(0);
-                        if (first instanceof JSONObject) {
-                            JSONObject fjo = (JSONObject) first;
-                            String[] keys = new String[]{"result_url", "url", "image_url", "output_url", "output"};
-                            for (String k : keys) {
-                                if (fjo.has(k)) {
-                                    String s = fjo.optString(k, null);
-                                    if (looksLikeUrl(s)) return s;
-                                }
-                            }
-                        } else {
-                            String s = first.toString();
-                            if (looksLikeUrl(s)) return s;
-                        }
-                    }
-                }
-            }
-
-            if (jo.has("outputs")) {
-                Object outs = jo.get("outputs");
-                if (outs instanceof JSONArray && ((JSONArray) outs).length() > 0) {
-                    Object first = ((JSONArray) outs).get(0);
-                    if (first instanceof JSONObject) {
-                        JSONObject fjo = (JSONObject) first;
-                        if (fjo.has("url")) {
-                            String s = fjo.optString("url", null);
-                            if (looksLikeUrl(s)) return s;
-                        }
-                    }
-                }
-            }
-
-            if (jo.has("result") && jo.opt("result") instanceof JSONObject) {
-                JSONObject rjo = jo.optJSONObject("result");
-                if (rjo != null && rjo.has("url")) {
-                    String s = rjo.optString("url", null);
-                    if (looksLikeUrl(s)) return s;
-                }
-            }
-
-        } catch (JSONException e) {
-            Log.w(TAG, "parseUrlFromJson JSONException: " + e.getMessage());
-        }
-        return null;
-    }
-
-    private static boolean looksLikeUrl(String s) {
-        if (s == null) return false;
-        s = s.trim();
-        return s.startsWith("http://") || s.startsWith("https://") || s.startsWith("file://") || s.startsWith("content://");
-    }
-
     private static boolean looksLikeHtml(String s) {
         if (s == null) return false;
         String low = s.trim().toLowerCase();
         return low.startsWith("<!doctype") || low.startsWith("<html") || low.contains("<html") || low.contains("<!doctype");
     }
 
+    /**
+     * 图片类型：优先用调用方给出的类型，没有时按文件扩展名猜，不读文件内容
+     */
+    static MediaType imageType(File f, String mimeType) {
+        String mime = mimeType != null ? mimeType : URLConnection.guessContentTypeFromName(f.getName());
+        return MediaType.get(mime != null && mime.startsWith("image/") ? mime : "application/octet-stream");
+    }
+
     private static String snippet(String s, int max) {
         if (s == null) return "";
         return s.length() <= max ? s : s.substring(0, max) + "...";
@@ -9,13 +9,10 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+
 public class BackendApi {
-    private static final OkHttpClient client = new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS) // 连接超时 30秒
-            .readTimeout(30, TimeUnit.SECONDS)    // 读取超时 30秒
-            .writeTimeout(30, TimeUnit.SECONDS)   // 写入超时 30秒
-            .build();
+    // 共享 client（连接池、HTTP 缓存全局一份）
+    private static final OkHttpClient client = HttpClients.base();
     // 注意：原本你的 BASE 结尾有 "/"，调用时请确保路径不要重复 "/"，或者服务器能处理双斜杠
     private static final String BASE = "http://10.0.2.2:8000/";
 
@@ -0,0 +1,110 @@
+package com.example.mvvmwechat.network;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * HttpClients - 全应用共用的 OkHttpClient
+ *
+ * - base()：连接池、Dispatcher、磁盘缓存都只有一份，HTTPS 连接可以复用（HTTP/2 时多个请求共用一条连接）
+ * - 其它用途的 client 都从 base() 用 newBuilder() 派生，只改超时，底层资源仍然共享
+ * - 图片和文件下载（images()、download()）不走 HTTP 缓存：它们各自有磁盘缓存（Glide、GarmentCache、
+ *   TryOnResultCache），再进 HTTP 缓存就存了两份，还会把 API 响应挤出去
+ * - 必须在 MvvmApp.onCreate() 里先调用 init()，否则没有磁盘缓存
+ */
+public final class HttpClients {
+    private static final String TAG = "HttpClients";
+    private static final String CACHE_DIR = "http";
+    private static final long CACHE_BYTES = 20L * 1024 * 1024;
+
+    private static File cacheDir;
+    private static OkHttpClient base;
+    private static OkHttpClient upload;
+    private static OkHttpClient download;
+    private static OkHttpClient images;
+
+    private HttpClients() {}
+
+    public static synchronized void init(Context context) {
+        if (cacheDir == null) {
+            cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR);
+        }
+    }
+
+    /**
+     * 普通 API 请求（后端、天气等）
+     */
+    public static synchronized OkHttpClient base() {
+        if (base == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(8);
+
+            OkHttpClient.Builder b = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .retryOnConnectionFailure(true)
+                    .connectTimeout(15, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .writeTimeout(30, TimeUnit.SECONDS);
+            if (cacheDir != null) {
+                b.cache(new Cache(cacheDir, CACHE_BYTES));
+            } else {
+                Log.w(TAG, "init() not called, HTTP cache disabled");
+            }
+            base = b.build();
+        }
+        return base;
+    }
+
+    /**
+     * Glide 加载图片：超时同 base()，不用 HTTP 缓存（Glide 自己有磁盘缓存）
+     */
+    public static synchronized OkHttpClient images() {
+        if (images == null) {
+            images = base().newBuilder()
+                    .cache(null)
+                    .build();
+        }
+        return images;
+    }
+
+    /**
+     * 换装接口：上传大图、服务端处理慢，超时放宽
+     */
+    public static synchronized OkHttpClient upload() {
+        if (upload == null) {
+            upload = base().newBuilder()
+                    .connectTimeout(60, TimeUnit.SECONDS)
+                    .readTimeout(120, TimeUnit.SECONDS)
+                    .writeTimeout(120, TimeUnit.SECONDS)
+                    .build();
+        }
+        return upload;
+    }
+
+    /**
+     * 下载图片文件：限制整个请求的总时长；不用 HTTP 缓存（下载结果由调用方自己缓存）
+     */
+    public static synchronized OkHttpClient download() {
+        if (download == null) {
+            download = base().newBuilder()
+                    .cache(null)
+                    .callTimeout(60, TimeUnit.SECONDS)
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(60, TimeUnit.SECONDS)
+                    .build();
+        }
+        return download;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.mvvmwechat.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * JobPoller - 轮询异步任务状态（tryon-api.com 的 /status/{jobId}）
+ *
+ * - 所有任务共用一个 scheduler 线程排期，请求用 OkHttp 异步发出，不再每个任务开一个线程
+ * - 间隔从 MIN_DELAY_MS 开始按 BACKOFF_FACTOR 增长到 MAX_DELAY_MS，并加随机抖动
+ * - 服务器给了 Retry-After 头或 eta/estimated_time 字段时按提示的时间再查
+ * - 返回的 Handle 可以随时取消，取消后不再发请求，也不会再回调
+ */
+public class JobPoller {
+    private static final String TAG = "JobPoller";
+
+    private static final long MIN_DELAY_MS = 1000;
+    private static final long MAX_DELAY_MS = 15000;
+    // 服务器提示的等待时间上限，防止一个很大的 eta 让任务长时间没人查
+    private static final long MAX_HINT_MS = 60000;
+    private static final double BACKOFF_FACTOR = 1.5;
+    private static final double JITTER = 0.2;
+    // 整个任务最长等待时间
+    private static final long MAX_WAIT_MS = TimeUnit.MINUTES.toMillis(5);
+    // 连续网络/服务端错误次数上限
+    private static final int MAX_CONSECUTIVE_ERRORS = 8;
+
+    public interface Listener {
+        // 任务完成，json 为最后一次状态查询的返回；在主线程回调
+        void onCompleted(JSONObject json);
+
+        // 任务失败、超时或轮询出错；在主线程回调
+        void onError(Exception e);
+    }
+
+    /**
+     * 一个任务的轮询句柄：submit 请求、下一次排期、正在进行的状态请求都挂在这里
+     */
+    public static class Handle {
+        private volatile boolean cancelled;
+        private volatile Call call;
+        private volatile ScheduledFuture<?> next;
+
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> f = next;
+            if (f != null) f.cancel(false);
+            Call c = call;
+            if (c != null) c.cancel();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // 任务提交阶段的请求也交给 Handle 管理，方便一起取消
+        void setCall(Call call) {
+            this.call = call;
+            if (cancelled) call.cancel();
+        }
+    }
+
+    private final OkHttpClient client;
+    private final ScheduledExecutorService scheduler;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+
+    public JobPoller(OkHttpClient client, ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 开始轮询
+     * @param firstDelayMs 第一次查询前的等待时间（例如提交时服务器返回的 eta），<= 0 时用 MIN_DELAY_MS
+     */
+    public void poll(Handle handle, String statusUrl, String apiKey, long firstDelayMs, Listener listener) {
+        Job job = new Job(handle, statusUrl, apiKey, listener);
+        job.schedule(firstDelayMs > 0 ? Math.min(firstDelayMs, MAX_HINT_MS) : MIN_DELAY_MS);
+    }
+
+    private class Job implements Callback {
+        final Handle handle;
+        final String statusUrl;
+        final String apiKey;
+        final Listener listener;
+        final long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+        long backoffMs = MIN_DELAY_MS;
+        int attempts;
+        int consecutiveErrors;
+
+        Job(Handle handle, String statusUrl, String apiKey, Listener listener) {
+            this.handle = handle;
+            this.statusUrl = statusUrl;
+            this.apiKey = apiKey;
+            this.listener = listener;
+        }
+
+        void schedule(long delayMs) {
+            if (handle.isCancelled()) return;
+            if (System.currentTimeMillis() + delayMs > deadline) {
+                fail(new Exception("Try-on operation timed out."));
+                return;
+            }
+            handle.next = scheduler.schedule(this::request, delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        // 在 scheduler 线程上执行，只负责发出异步请求
+        void request() {
+            if (handle.isCancelled()) return;
+            attempts++;
+            Request request = new Request.Builder()
+                    .url(statusUrl)
+                    .addHeader("Authorization", "Bearer " + apiKey)
+                    .get()
+                    .build();
+            Call call = client.newCall(request);
+            handle.setCall(call);
+            call.enqueue(this);
+        }
+
+        @Override
+        public void onFailure(@NonNull Call call, @NonNull IOException e) {
+            if (handle.isCancelled()) return;
+            Log.w(TAG, "Polling network error (" + statusUrl + "): " + e.getMessage());
+            retryAfterError(e, -1);
+        }
+
+        @Override
+        public void onResponse(@NonNull Call call, @NonNull Response response) {
+            try (Response r = response) {
+                if (handle.isCancelled()) return;
+                long hintMs = retryAfterMs(r);
+
+                if (!r.isSuccessful()) {
+                    Exception e = new IOException("Polling HTTP " + r.code());
+                    // 429 / 5xx 是暂时性的，退避后继续；其它 4xx 再查也没用
+                    if (r.code() == 429 || r.code() >= 500) {
+                        Log.w(TAG, "Polling server error: " + r.code());
+                        retryAfterError(e, hintMs);
+                    } else {
+                        fail(e);
+                    }
+                    return;
+                }
+                consecutiveErrors = 0;
+
+                String respStr = r.body() != null ? r.body().string() : "{}";
+                Log.d(TAG, "Polling Response #" + attempts + ": " + respStr);
+                JSONObject json = new JSONObject(respStr);
+                String status = json.optString("status").toLowerCase();
+
+                if ("completed".equals(status) || "success".equals(status)) {
+                    deliver(() -> listener.onCompleted(json));
+                } else if ("failed".equals(status) || "error".equals(status)) {
+                    String msg = json.optString("message", json.optString("error", "Unknown error"));
+                    Log.e(TAG, "Job Failed. Body: " + respStr);
+                    fail(new Exception("AI Job Failed: " + msg));
+                } else {
+                    if (hintMs < 0) hintMs = etaMs(json);
+                    schedule(nextDelay(hintMs));
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Polling exception", e);
+                retryAfterError(e, -1);
+            }
+        }
+
+        private void retryAfterError(Exception e, long hintMs) {
+            if (++consecutiveErrors >= MAX_CONSECUTIVE_ERRORS) {
+                fail(e);
+            } else {
+                schedule(nextDelay(hintMs));
+            }
+        }
+
+        // 有提示按提示，否则指数退避；都加上 ±JITTER 的抖动，避免多个任务同时打到服务器
+        private long nextDelay(long hintMs) {
+            long base;
+            if (hintMs > 0) {
+                base = Math.max(MIN_DELAY_MS, Math.min(hintMs, MAX_HINT_MS));
+            } else {
+                base = backoffMs;
+                backoffMs = Math.min(MAX_DELAY_MS, (long) (backoffMs * BACKOFF_FACTOR));
+            }
+            double jitter = 1 + (random.nextDouble() * 2 - 1) * JITTER;
+            return Math.max(MIN_DELAY_MS / 2, (long) (base * jitter));
+        }
+
+        private void fail(Exception e) {
+            deliver(() -> listener.onError(e));
+        }
+
+        private void deliver(Runnable r) {
+            main.post(() -> {
+                if (!handle.isCancelled()) r.run();
+            });
+        }
+    }
+
+    /**
+     * Retry-After：秒数或 HTTP 日期；没有时返回 -1
+     */
+    static long retryAfterMs(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) return -1;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ignored) {
+            Date date = response.headers().getDate("Retry-After");
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 状态返回里的预计剩余时间（秒），字段名兼容几种常见写法；没有时返回 -1
+     */
+    static long etaMs(JSONObject json) {
+        String[] keys = {"eta", "eta_seconds", "estimated_time", "estimatedTime", "retry_after"};
+        for (String k : keys) {
+            double v = json.optDouble(k, Double.NaN);
+            if (!Double.isNaN(v) && v > 0) return (long) (v * 1000);
+        }
+        return -1;
+    }
+}
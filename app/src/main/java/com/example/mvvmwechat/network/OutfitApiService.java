@@ -1,12 +1,36 @@
 package com.example.mvvmwechat.network;
 
-import com.example.mvvmwechat.data.Outfit;
-import java.util.List;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public interface OutfitApiService {
     // 对应 Python 后端的 @app.get("/outfits")
+    // @Streaming：不把整个响应读进内存，由 OutfitStreamReader 边读边写库（JSON 数组或 NDJSON）
+    @Streaming
+    @Headers("Accept: application/json, application/x-ndjson")
     @GET("outfits")
-    Call<List<Outfit>> getAllOutfits();
-}
\ No newline at end of file
+    Call<ResponseBody> getAllOutfits();
+
+    /**
+     * 分页拉取：对应 Python 后端的 @app.get("/outfits?cursor=&limit=")
+     * cursor 为 null 时返回第一页
+     */
+    @GET("outfits")
+    Call<OutfitPage> getOutfitPage(@Query("cursor") String cursor, @Query("limit") int limit);
+
+    /**
+     * 增量同步：对应 Python 后端的 @app.get("/outfits/delta")
+     * - updatedSince 为 null 时服务器返回全量快照
+     * - etag 为 null 时不带 If-None-Match；数据没变化时服务器返回 304
+     * - 全量快照可能很大，同样流式读取（格式见 OutfitDelta）
+     */
+    @Streaming
+    @GET("outfits/delta")
+    Call<ResponseBody> getOutfitsDelta(@Query("updated_since") String updatedSince,
+                                      @Header("If-None-Match") String etag);
+}
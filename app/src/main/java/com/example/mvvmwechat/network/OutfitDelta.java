@@ -0,0 +1,31 @@
+package com.example.mvvmwechat.network;
+
+import com.example.mvvmwechat.data.Outfit;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * OutfitDelta - 对应 Python 后端 @app.get("/outfits/delta") 的返回
+ *
+ * 返回格式：
+ * { "cursor": "...", "full": false, "upserted": [ {...}, ... ], "deleted": [1, 2, ...] }
+ */
+public class OutfitDelta {
+
+    // 本次同步后的游标，下次请求时作为 updated_since 传回
+    @SerializedName("cursor")
+    public String cursor;
+
+    // true 表示服务器返回的是全量快照（首次同步或游标已过期），本地需要删除快照之外的数据
+    @SerializedName("full")
+    public boolean full;
+
+    // 新增或修改过的穿搭（OutfitStreamReader 流式读取时按批写库，这里为 null）
+    @SerializedName("upserted")
+    public List<Outfit> upserted;
+
+    // 服务器端已删除的穿搭 id
+    @SerializedName("deleted")
+    public List<Long> deleted;
+}
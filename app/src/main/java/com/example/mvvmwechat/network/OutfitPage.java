@@ -0,0 +1,26 @@
+package com.example.mvvmwechat.network;
+
+import com.example.mvvmwechat.data.Outfit;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * OutfitPage - 对应 Python 后端 @app.get("/outfits") 带 cursor/limit 参数时的分页返回
+ *
+ * 返回格式：
+ * { "items": [ {...}, ... ], "next_cursor": "...", "sync_cursor": "..." }
+ */
+public class OutfitPage {
+
+    @SerializedName("items")
+    public List<Outfit> items;
+
+    // 下一页的游标；为 null 表示已经是最后一页
+    @SerializedName("next_cursor")
+    public String nextCursor;
+
+    // 第一页返回的增量同步游标，之后可以用 /outfits/delta 从这里继续同步
+    @SerializedName("sync_cursor")
+    public String syncCursor;
+}
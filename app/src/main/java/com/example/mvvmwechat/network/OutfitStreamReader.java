@@ -0,0 +1,147 @@
+package com.example.mvvmwechat.network;
+
+import com.example.mvvmwechat.data.Outfit;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.ResponseBody;
+
+/**
+ * OutfitStreamReader - 流式解析穿搭目录，边读边按批交给调用方写库，内存里最多只有一批 Outfit
+ *
+ * 支持的响应格式：
+ * - JSON 数组：[ {...}, {...} ]
+ * - NDJSON：每行一个 Outfit 对象
+ * - /outfits/delta 的对象：{ "cursor": ..., "full": ..., "upserted": [...], "deleted": [...] }，字段顺序不限
+ * - 以上任一格式整体 gzip 压缩（按文件头 1f 8b 识别；HTTP 层的 Content-Encoding: gzip 由 OkHttp 透明解压）
+ */
+public final class OutfitStreamReader {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final Gson GSON = new Gson();
+
+    public interface BatchHandler {
+        // batch 在回调返回后会被清空复用，需要保留时自己复制
+        void onBatch(List<Outfit> batch);
+    }
+
+    private OutfitStreamReader() {}
+
+    /**
+     * 打开响应体；宽松模式，允许 NDJSON 的多个顶层值
+     */
+    public static JsonReader open(ResponseBody body) throws IOException {
+        InputStream in = new BufferedInputStream(body.byteStream(), 64 * 1024);
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        if (b0 == 0x1f && b1 == 0x8b) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * 读取 JSON 数组或 NDJSON 形式的穿搭列表
+     * @return 读到的总条数
+     */
+    public static int readOutfits(JsonReader reader, int batchSize, BatchHandler handler) throws IOException {
+        Batcher batcher = new Batcher(batchSize, handler);
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            readArray(reader, batcher);
+        } else {
+            // NDJSON：连续的顶层对象
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                batcher.add(GSON.fromJson(reader, Outfit.class));
+            }
+        }
+        batcher.flush();
+        return batcher.total;
+    }
+
+    /**
+     * 读取 /outfits/delta 的返回：upserted 按批交给 handler，其它字段填进返回的 OutfitDelta（upserted 为 null）
+     */
+    public static OutfitDelta readDelta(JsonReader reader, int batchSize, BatchHandler handler) throws IOException {
+        OutfitDelta delta = new OutfitDelta();
+        Batcher batcher = new Batcher(batchSize, handler);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "cursor":
+                    delta.cursor = reader.nextString();
+                    break;
+                case "full":
+                    delta.full = reader.nextBoolean();
+                    break;
+                case "upserted":
+                    readArray(reader, batcher);
+                    break;
+                case "deleted":
+                    delta.deleted = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) delta.deleted.add(reader.nextLong());
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        batcher.flush();
+        return delta;
+    }
+
+    private static void readArray(JsonReader reader, Batcher batcher) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            batcher.add(GSON.fromJson(reader, Outfit.class));
+        }
+        reader.endArray();
+    }
+
+    private static class Batcher {
+        final int size;
+        final BatchHandler handler;
+        final List<Outfit> batch;
+        int total;
+
+        Batcher(int size, BatchHandler handler) {
+            this.size = size;
+            this.handler = handler;
+            this.batch = new ArrayList<>(size);
+        }
+
+        void add(Outfit o) {
+            if (o == null) return;
+            batch.add(o);
+            total++;
+            if (batch.size() >= size) flush();
+        }
+
+        void flush() {
+            if (batch.isEmpty()) return;
+            handler.onBatch(batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.mvvmwechat.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+
+/**
+ * ProgressRequestBody - 给任意请求体加上传进度
+ *
+ * - 只统计写出的字节，不改变内容；delegate 可重复写时本类也可重复写（重试时进度从 0 重新统计）
+ * - ofFile() 用 FileChannel 按块把文件写进 sink，不整体读进内存，每次 writeTo 都重新打开文件，所以可以重发
+ */
+public class ProgressRequestBody extends RequestBody {
+    private static final int CHUNK = 64 * 1024;
+
+    private final RequestBody delegate;
+    private final UploadProgress.Listener listener;
+
+    public ProgressRequestBody(RequestBody delegate, UploadProgress.Listener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    /**
+     * 从文件流式读取的请求体，可重复写出
+     */
+    public static RequestBody ofFile(File file, @Nullable MediaType type) {
+        return new FileBody(file, type);
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return delegate.isOneShot();
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        final long total = contentLength();
+        BufferedSink counting = Okio.buffer(new ForwardingSink(sink) {
+            long written;
+
+            @Override
+            public void write(@NonNull Buffer source, long byteCount) throws IOException {
+                super.write(source, byteCount);
+                written += byteCount;
+                listener.onProgress(written, total);
+            }
+        });
+        delegate.writeTo(counting);
+        counting.flush();
+    }
+
+    private static class FileBody extends RequestBody {
+        private final File file;
+        private final MediaType type;
+
+        FileBody(File file, MediaType type) {
+            this.file = file;
+            this.type = type;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return type;
+        }
+
+        @Override
+        public long contentLength() {
+            return file.length();
+        }
+
+        @Override
+        public void writeTo(@NonNull BufferedSink sink) throws IOException {
+            try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+                ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+                while (channel.read(buf) != -1) {
+                    buf.flip();
+                    while (buf.hasRemaining()) sink.write(buf);
+                    buf.clear();
+                }
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ public class RetrofitClient {
     private RetrofitClient() {
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl(BASE_URL)
+                .client(HttpClients.base()) // 和其它请求共用连接池与 HTTP 缓存
                 .addConverterFactory(GsonConverterFactory.create()) // 自动把 JSON 转成 List<Outfit>
                 .build();
 
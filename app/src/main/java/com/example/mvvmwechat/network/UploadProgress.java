@@ -0,0 +1,31 @@
+package com.example.mvvmwechat.network;
+
+/**
+ * UploadProgress - 上传进度（整个请求体已写出的字节数 / 总字节数）
+ */
+public class UploadProgress {
+    public final long bytesSent;
+    public final long totalBytes;
+
+    public interface Listener {
+        // 在 OkHttp 的写线程回调；重试时会从 0 重新开始
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
+    public UploadProgress(long bytesSent, long totalBytes) {
+        this.bytesSent = bytesSent;
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * 0..100；总大小未知时返回 -1
+     */
+    public int percent() {
+        if (totalBytes <= 0) return -1;
+        return (int) Math.min(100, bytesSent * 100 / totalBytes);
+    }
+
+    public boolean isDone() {
+        return totalBytes > 0 && bytesSent >= totalBytes;
+    }
+}
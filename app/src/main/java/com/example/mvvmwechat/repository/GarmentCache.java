@@ -0,0 +1,186 @@
+package com.example.mvvmwechat.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.mvvmwechat.AppExecutors;
+import com.example.mvvmwechat.network.HttpClients;
+import com.example.mvvmwechat.util.Hashes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * GarmentCache - 衣服原图的磁盘缓存（换装时上传用的高清图）
+ *
+ * - 文件名是规范化后 URL 的 SHA-256，不同衣服不会互相覆盖
+ * - 同一个 URL 同时被请求时只下载一次，其它调用方等同一个结果
+ * - 总大小超过 MAX_BYTES 时按最后访问时间（文件修改时间）删除最旧的；
+ *   IN_USE_MS 内访问过的不删，get() 刚返回的文件调用方还要读
+ */
+public class GarmentCache {
+    private static final String TAG = "GarmentCache";
+    private static final String DIR = "garments";
+    private static final long MAX_BYTES = 50L * 1024 * 1024;
+    private static final long IN_USE_MS = 60_000;
+
+    private static volatile GarmentCache INSTANCE;
+
+    private final File dir;
+    private final ConcurrentHashMap<String, FutureTask<File>> inFlight = new ConcurrentHashMap<>();
+
+    private GarmentCache(Context context) {
+        dir = new File(context.getApplicationContext().getCacheDir(), DIR);
+    }
+
+    public static GarmentCache getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (GarmentCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new GarmentCache(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 取衣服图：有缓存直接返回，否则下载（会阻塞，必须在后台线程调用）
+     */
+    public File get(String rawUrl) throws IOException {
+        final String url = normalizeUrl(rawUrl);
+        final String key = Hashes.sha256(url);
+        final File f = new File(dir, key);
+        if (f.exists()) {
+            f.setLastModified(System.currentTimeMillis());
+            return f;
+        }
+
+        FutureTask<File> task = new FutureTask<>(() -> download(url, f));
+        FutureTask<File> running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+        }
+
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + url);
+        }
+    }
+
+    /**
+     * 预取：列表里出现的衣服提前下载，之后换装不用再等网络；失败了也不影响什么
+     */
+    public void prefetch(String rawUrl) {
+        if (!isRemote(rawUrl)) return;
+        String key = Hashes.sha256(normalizeUrl(rawUrl));
+        if (new File(dir, key).exists() || inFlight.containsKey(key)) return;
+        AppExecutors.getInstance().network().execute(() -> {
+            try {
+                get(rawUrl);
+            } catch (IOException e) {
+                Log.d(TAG, "prefetch failed: " + e.getMessage());
+            }
+        });
+    }
+
+    public static boolean isRemote(String path) {
+        return path != null && (path.startsWith("http://") || path.startsWith("https://"));
+    }
+
+    /**
+     * Pollinations 的 URL 里带 width=400&height=600，换成 768x1024 以满足换装接口至少 512px 的要求，
+     * 再把中文、空格等编码成 ASCII
+     */
+    public static String normalizeUrl(String rawUrl) {
+        String highRes = rawUrl.replaceAll("width=\\d+", "width=768")
+                .replaceAll("height=\\d+", "height=1024");
+        try {
+            String decoded = java.net.URLDecoder.decode(highRes, "UTF-8");
+            java.net.URL u = new java.net.URL(decoded);
+            java.net.URI uri = new java.net.URI(u.getProtocol(), u.getUserInfo(), u.getHost(), u.getPort(),
+                    u.getPath(), u.getQuery(), null);
+            return uri.toASCIIString();
+        } catch (Exception e) {
+            return highRes.replace(" ", "%20");
+        }
+    }
+
+    private File download(String url, File dst) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("无法创建目录: " + dir);
+        Request req = new Request.Builder().url(url).build();
+        File tmp = new File(dir, dst.getName() + ".tmp");
+        try (Response resp = HttpClients.download().newCall(req).execute()) {
+            if (!resp.isSuccessful() || resp.body() == null) {
+                throw new IOException("HTTP " + resp.code() + " for " + url);
+            }
+            try (InputStream in = resp.body().byteStream(); OutputStream out = new FileOutputStream(tmp)) {
+                byte[] buf = new byte[64 * 1024];
+                int len;
+                while ((len = in.read(buf)) != -1) out.write(buf, 0, len);
+            }
+        }
+        if (!tmp.renameTo(dst)) {
+            tmp.delete();
+            throw new IOException("无法保存: " + dst);
+        }
+        Log.d(TAG, "downloaded " + (dst.length() / 1024) + " KB: " + url);
+        trimToSize();
+        return dst;
+    }
+
+    private void trimToSize() {
+        File[] files = dir.listFiles((d, name) -> !name.endsWith(".tmp"));
+        if (files == null) return;
+        // 先记下时间和大小再排序：命中缓存时其它线程会更新 lastModified，边排序边读会违反比较器约定
+        Entry[] entries = new Entry[files.length];
+        long total = 0;
+        for (int i = 0; i < files.length; i++) {
+            entries[i] = new Entry(files[i]);
+            total += entries[i].length;
+        }
+        if (total <= MAX_BYTES) return;
+
+        Arrays.sort(entries, (a, b) -> Long.compare(a.lastModified, b.lastModified));
+        long inUseSince = System.currentTimeMillis() - IN_USE_MS;
+        for (Entry e : entries) {
+            // 剩下的都是最近访问过的，可能正在被读取，宁可暂时超出上限
+            if (total <= MAX_BYTES || e.lastModified > inUseSince) break;
+            if (e.file.delete()) total -= e.length;
+        }
+    }
+
+    private static final class Entry {
+        final File file;
+        final long lastModified;
+        final long length;
+
+        Entry(File file) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mvvmwechat.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.ListenableFutureRemoteMediator;
+import androidx.paging.LoadType;
+import androidx.paging.PagingState;
+
+import com.example.mvvmwechat.data.Outfit;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * OutfitRemoteMediator - 本地 Room 分页读到末尾时，向后端 /outfits?cursor= 要下一页
+ *
+ * - REFRESH：交给 OutfitRepository 的单飞同步（没同步过拉第一页，同步过走 /outfits/delta 增量同步），
+ *   多个列表同时刷新只会请求一次；列表每次建立都会触发，由 SYNC_FRESH_MS 去重
+ * - APPEND：按保存的分页游标继续拉取，直到后端没有下一页
+ * - PREPEND：列表从头开始，不需要向前加载
+ */
+@OptIn(markerClass = ExperimentalPagingApi.class)
+public class OutfitRemoteMediator extends ListenableFutureRemoteMediator<Integer, Outfit> {
+
+    private final OutfitRepository repo;
+    private final ListeningExecutorService executor;
+    private final int pageSize;
+
+    OutfitRemoteMediator(OutfitRepository repo, ExecutorService executor, int pageSize) {
+        this.repo = repo;
+        this.executor = MoreExecutors.listeningDecorator(executor);
+        this.pageSize = pageSize;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<InitializeAction> initializeFuture() {
+        // 每次打开列表都刷新一次：本地数据照常先展示，刚同步过时 awaitSync 直接返回，不会重复请求
+        return Futures.immediateFuture(InitializeAction.LAUNCH_INITIAL_REFRESH);
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<MediatorResult> loadFuture(@NonNull LoadType loadType,
+                                                       @NonNull PagingState<Integer, Outfit> state) {
+        if (loadType == LoadType.PREPEND) {
+            return Futures.immediateFuture(new MediatorResult.Success(true));
+        }
+
+        return executor.submit(() -> {
+            try {
+                boolean end;
+                if (loadType == LoadType.REFRESH) {
+                    repo.awaitSync(false);
+                    end = !repo.hasMorePages();
+                } else {
+                    end = repo.loadCatalogPage(false, pageSize);
+                }
+                return new MediatorResult.Success(end);
+            } catch (Exception e) {
+                return new MediatorResult.Error(e);
+            }
+        });
+    }
+}
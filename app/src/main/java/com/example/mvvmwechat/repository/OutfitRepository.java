@@ -1,71 +1,148 @@
 package com.example.mvvmwechat.repository;
 
 import android.content.Context;
+import android.database.sqlite.SQLiteConstraintException;
 import android.util.Log; // 新增：用于打印日志
 
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.room.InvalidationTracker;
 
+import com.example.mvvmwechat.AppExecutors;
 import com.example.mvvmwechat.data.AppDatabase;
+import com.example.mvvmwechat.core.CatalogJoin;
+import com.example.mvvmwechat.core.CatalogMatcher;
+import com.example.mvvmwechat.core.FacetCounter;
+import com.example.mvvmwechat.core.OutfitIndex;
+import com.example.mvvmwechat.core.OutfitRanker;
+import com.example.mvvmwechat.core.TagSplitter;
+import com.example.mvvmwechat.data.FacetRow;
 import com.example.mvvmwechat.data.Favorite;
 import com.example.mvvmwechat.data.Outfit;
+import com.example.mvvmwechat.data.OutfitFilter;
+import com.example.mvvmwechat.data.OutfitTag;
+import com.example.mvvmwechat.data.Setting;
+import com.example.mvvmwechat.data.Tag;
+import com.example.mvvmwechat.data.TagDao;
+import com.example.mvvmwechat.network.OutfitDelta;
+import com.example.mvvmwechat.network.OutfitPage;
+import com.example.mvvmwechat.network.OutfitStreamReader;
 import com.example.mvvmwechat.network.RetrofitClient; // ⚠️新增：确保你有这个类
 
+import com.google.gson.stream.JsonReader;
+
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import retrofit2.Call; // 新增
+import okhttp3.ResponseBody;
 import retrofit2.Response; // 新增
 
 /**
  * OutfitRepository
  * - 负责和 Room（AppDatabase）交互
  * - 负责从网络 (Python Backend) 拉取数据
- * - 提供线程池执行数据库操作
+ * - 数据库操作走 AppExecutors.diskIO()，网络同步走 AppExecutors.network()
+ * - 全局单例：同一个查询只创建一个 Room LiveData，所有观察者共享，表变化时由 Room 自动重新查询
+ * - 网络同步是单飞的：同一时间只有一次同步在跑，其它调用方加入这一次；SYNC_FRESH_MS 内同步过就不再请求
  */
 public class OutfitRepository {
+    // 增量同步的游标和 ETag，保存在 settings 表中
+    private static final String KEY_SYNC_CURSOR = "outfit_sync_cursor";
+    private static final String KEY_SYNC_ETAG = "outfit_sync_etag";
+    // 分页拉取的游标；"" 表示已经拉完
+    private static final String KEY_PAGE_CURSOR = "outfit_page_cursor";
+    // 按 id 删除/读取时每批的条数，低于 SQLite 单条语句 999 个参数的限制
+    private static final int ID_BATCH_SIZE = 500;
+    // 流式同步时每批写库的条数
+    private static final int SYNC_BATCH_SIZE = OutfitStreamReader.DEFAULT_BATCH_SIZE;
+    private static final int PAGE_SIZE = 30;
+    private static final int PAGE_MAX_SIZE = PAGE_SIZE * 6;
+    // 成功同步后这段时间内不再重复请求（切换页面、重建 ViewModel 都不会重新拉取）
+    private static final long SYNC_FRESH_MS = TimeUnit.MINUTES.toMillis(2);
+
+    private static volatile OutfitRepository INSTANCE;
+
     private final AppDatabase db;
-    private final ExecutorService executor;
+    private final AppExecutors executors;
+
+    // 共享的可观察查询（懒加载，只在主线程访问）
+    private LiveData<List<Outfit>> allOutfits;
+    private LiveData<List<Favorite>> favorites;
+    private LiveData<List<Outfit>> favoriteOutfits;
+    private LiveData<FacetCounter> facetCounter;
+    private final Map<String, LiveData<String>> settings = new HashMap<>();
+
+    // 同步协调：正在进行的同步（没有时为 null）和最近一次成功的时间
+    private final Object syncLock = new Object();
+    private FutureTask<Void> inFlightSync;
+    private volatile long lastSyncAt;
+    private final MutableLiveData<SyncState> syncState =
+            new MutableLiveData<>(new SyncState(SyncState.IDLE, null, 0));
 
-    public OutfitRepository(Context context) {
+    // 推荐排序的特征快照；outfits 表变化时作废，下次推荐时重建
+    private volatile OutfitRanker.Features rankFeatures;
+    private final AtomicInteger catalogVersion = new AtomicInteger();
+
+    // 搜索用的内存索引：同样在 outfits 表变化时作废，下次搜索时重建
+    private volatile OutfitIndex outfitIndex;
+    private final Object indexLock = new Object();
+    // 复用的查询缓冲区，属于 queryIndex；由 searchLock 保护（diskIO 有多个线程）
+    private final Object searchLock = new Object();
+    private OutfitIndex queryIndex;
+    private OutfitIndex.Query indexQuery;
+
+    private OutfitRepository(Context context) {
         db = AppDatabase.getInstance(context.getApplicationContext());
-        executor = Executors.newSingleThreadExecutor();
+        executors = AppExecutors.getInstance();
+        db.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("outfits") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                catalogVersion.incrementAndGet();
+                rankFeatures = null;
+                outfitIndex = null;
+            }
+        });
+    }
+
+    public static OutfitRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (OutfitRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new OutfitRepository(context);
+                }
+            }
+        }
+        return INSTANCE;
     }
 
     /**
-     * 核心新功能：从 Python 后端拉取数据并同步到本地数据库
-     * 逻辑：Network -> List<Outfit> -> Delete Local DB -> Insert New Data
+     * 核心新功能：从 Python 后端拉取数据并同步到本地数据库（异步，结果通过 getSyncState() 观察）
+     * 正在同步时直接加入那一次；刚同步过（SYNC_FRESH_MS 内）不再请求
+     * @param force true 时忽略 SYNC_FRESH_MS（用户主动刷新）
      */
-    public void refreshFromNetwork() {
-        executor.execute(() -> {
+    public void refreshFromNetwork(boolean force) {
+        executors.network().execute(() -> {
             try {
-                // 1. 发起网络请求 (同步方式 execute)
-                Call<List<Outfit>> call = RetrofitClient.getInstance().getApi().getAllOutfits();
-                Response<List<Outfit>> response = call.execute();
-
-                // 2. 判断请求是否成功
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Outfit> networkData = response.body();
-
-                    // 3. 写入本地数据库 (开启事务以保证数据完整性)
-                    db.runInTransaction(() -> {
-                        // ⚠️ 注意：需要在 OutfitDao 里实现 deleteAll() 和 insertAll()
-                        db.outfitDao().deleteAll(); // 清空旧缓存
-                        db.outfitDao().insertAll(networkData); // 写入新数据
-                    });
-
-                    Log.d("OutfitRepo", "网络同步成功，更新了 " + networkData.size() + " 条数据");
-                } else {
-                    Log.e("OutfitRepo", "网络请求失败，错误码: " + response.code());
-                }
-
+                awaitSync(force);
             } catch (IOException e) {
                 // 网络不通（没联网，或连不上服务器）
                 Log.e("OutfitRepo", "网络连接错误", e);
-                e.printStackTrace();
             } catch (Exception e) {
                 Log.e("OutfitRepo", "数据同步异常", e);
             }
@@ -73,120 +150,456 @@ public class OutfitRepository {
     }
 
     /**
-     * 从本地数据库异步加载所有 Outfit，返回 LiveData 供 UI 观察。
-     * UI 会自动感知 refreshFromNetwork 带来的数据库变化
+     * 同步状态：进行中 / 成功 / 失败原因
      */
-    public LiveData<List<Outfit>> loadAllLocal() {
-        final MutableLiveData<List<Outfit>> live = new MutableLiveData<>();
-        executor.execute(() -> {
-            List<Outfit> list = db.outfitDao().getAll();
-            if (list == null) list = new ArrayList<>();
-            live.postValue(list);
+    public LiveData<SyncState> getSyncState() {
+        return syncState;
+    }
+
+    /**
+     * 同步并等待结果，必须在后台线程调用
+     * - 已有同步在进行：等它结束，不再发请求
+     * - 没有：当前线程自己执行（不占用另一个线程去等）
+     * @param force true 时忽略 SYNC_FRESH_MS（用户主动刷新）
+     */
+    void awaitSync(boolean force) throws IOException {
+        FutureTask<Void> task;
+        boolean leader = false;
+        synchronized (syncLock) {
+            if (!force && System.currentTimeMillis() - lastSyncAt < SYNC_FRESH_MS) return;
+            task = inFlightSync;
+            if (task == null) {
+                task = new FutureTask<>(this::runSync);
+                inFlightSync = task;
+                leader = true;
+            }
+        }
+        if (leader) {
+            task.run();
+        }
+
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for sync");
+        }
+    }
+
+    // 一次同步：同步过就走增量接口，否则拉目录第一页
+    private Void runSync() throws IOException {
+        syncState.postValue(new SyncState(SyncState.RUNNING, null, lastSyncAt));
+        try {
+            if (hasSyncCursor()) {
+                syncNow();
+            } else {
+                loadCatalogPage(true, PAGE_SIZE);
+            }
+            lastSyncAt = System.currentTimeMillis();
+            syncState.postValue(new SyncState(SyncState.SUCCESS, null, lastSyncAt));
+            return null;
+        } catch (IOException | RuntimeException e) {
+            String msg = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            syncState.postValue(new SyncState(SyncState.ERROR, msg, lastSyncAt));
+            throw e;
+        } finally {
+            synchronized (syncLock) {
+                inFlightSync = null;
+            }
+        }
+    }
+
+    /**
+     * 同步执行一次增量同步，必须在后台线程调用；外部请走 awaitSync()，避免并发同步
+     * 逻辑：读取同步游标 -> /outfits/delta -> 只 upsert/删除发生变化的行 -> 保存新游标
+     * - 服务器返回 304（ETag 未变）时不写数据库
+     * - 后端没有 /outfits/delta（404）时退回 /outfits 全量接口，但同样按差量写入
+     * - 响应流式解析，每 SYNC_BATCH_SIZE 条在一个短事务里写一次库，全量快照再大内存也只有一批数据；
+     *   写锁只在写每一批时持有，下载慢也不会挡住收藏、换装任务、设置的写入
+     * - 删除和新游标在读完后的最后一个事务里提交；中途失败时已写入的批次保留（upsert 可以重放），
+     *   游标没有前进，下次同步会重新拉取
+     */
+    void syncNow() throws IOException {
+        String cursor = db.settingDao().get(KEY_SYNC_CURSOR);
+        String etag = db.settingDao().get(KEY_SYNC_ETAG);
+
+        // 1. 发起增量请求 (同步方式 execute)
+        Response<ResponseBody> response = RetrofitClient.getInstance().getApi()
+                .getOutfitsDelta(cursor, etag).execute();
+
+        // 2. 数据没有变化
+        if (response.code() == 304) {
+            Log.d("OutfitRepo", "网络同步：数据未变化 (304)");
+            return;
+        }
+
+        // 3. 旧版后端没有增量接口，退回全量接口
+        if (response.code() == 404) {
+            refreshFullSnapshot();
+            return;
+        }
+
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("网络请求失败，错误码: " + response.code());
+        }
+
+        String newEtag = response.headers().get("ETag");
+        SnapshotWriter writer = new SnapshotWriter();
+        OutfitDelta delta;
+        // 4. 边读边按批写入本地数据库（每批一个事务）
+        try (ResponseBody body = response.body(); JsonReader reader = OutfitStreamReader.open(body)) {
+            delta = OutfitStreamReader.readDelta(reader, SYNC_BATCH_SIZE, writer::write);
+        }
+
+        // 5. 读完后一次提交删除和游标
+        final OutfitDelta d = delta;
+        db.runInTransaction(() -> {
+            // 没有游标时服务器返回的一定是全量快照
+            if (d.full || cursor == null) {
+                writer.deleteUnseen();
+                // 全量快照已经包含所有数据，不需要再分页拉取
+                db.settingDao().put(new Setting(KEY_PAGE_CURSOR, ""));
+            } else {
+                deleteOutfits(d.deleted);
+            }
+            if (d.cursor != null) {
+                db.settingDao().put(new Setting(KEY_SYNC_CURSOR, d.cursor));
+            }
+            if (newEtag != null) {
+                db.settingDao().put(new Setting(KEY_SYNC_ETAG, newEtag));
+            }
         });
-        return live;
+
+        Log.d("OutfitRepo", "网络同步成功，更新 " + writer.count + " 条，删除 " + sizeOf(delta.deleted) + " 条"
+                + (delta.full || cursor == null ? "（全量快照）" : ""));
+    }
+
+    /**
+     * 是否已经和后端同步过（有增量游标）
+     */
+    boolean hasSyncCursor() {
+        return db.settingDao().get(KEY_SYNC_CURSOR) != null;
     }
 
     /**
-     * 关键字搜索（title 或 style 匹配）
+     * 分页拉取目录的一页并写入本地，必须在后台线程调用
+     * @param first true 表示从第一页开始，否则从上次保存的游标继续
+     * @return 是否已经到最后一页
      */
-    public LiveData<List<Outfit>> search(String keyword) {
-        final MutableLiveData<List<Outfit>> live = new MutableLiveData<>();
-        final String kw = "%" + keyword + "%";
+    boolean loadCatalogPage(boolean first, int pageSize) throws IOException {
+        String cursor = first ? null : db.settingDao().get(KEY_PAGE_CURSOR);
+        if (!first && (cursor == null || cursor.isEmpty())) return true;
 
-        executor.execute(() -> {
-            List<Outfit> list = db.outfitDao().search(kw);
-            if (list == null) list = new ArrayList<>();
-            live.postValue(list);
+        Response<OutfitPage> response = RetrofitClient.getInstance().getApi()
+                .getOutfitPage(cursor, pageSize).execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("分页请求失败，错误码: " + response.code());
+        }
+
+        OutfitPage page = response.body();
+        boolean end = page.nextCursor == null || page.nextCursor.isEmpty();
+        db.runInTransaction(() -> {
+            upsertOutfits(page.items);
+            db.settingDao().put(new Setting(KEY_PAGE_CURSOR, end ? "" : page.nextCursor));
+            if (first && page.syncCursor != null) {
+                db.settingDao().put(new Setting(KEY_SYNC_CURSOR, page.syncCursor));
+            }
         });
+        Log.d("OutfitRepo", "分页同步：写入 " + sizeOf(page.items) + " 条" + (end ? "（最后一页）" : ""));
+        return end;
+    }
 
-        return live;
+    /**
+     * 是否还有未拉取的分页
+     */
+    boolean hasMorePages() {
+        String cursor = db.settingDao().get(KEY_PAGE_CURSOR);
+        return cursor != null && !cursor.isEmpty();
+    }
+
+    /**
+     * 分页展示的穿搭流：本地 Room 分页读取，滑到本地数据末尾时由 OutfitRemoteMediator 向后端要下一页
+     * 内存中最多保留 PAGE_MAX_SIZE 条
+     */
+    @OptIn(markerClass = ExperimentalPagingApi.class)
+    public Pager<Integer, Outfit> pager(OutfitFilter filter) {
+        PagingConfig config = new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, PAGE_MAX_SIZE);
+        return new Pager<>(config, null, new OutfitRemoteMediator(this, executors.network(), PAGE_SIZE),
+                () -> db.outfitDao().pagingSource(filter.toQuery()));
+    }
+
+    /**
+     * 兼容旧后端：拉取 /outfits 全量列表（JSON 数组或 NDJSON，可 gzip），按快照差量写入（不再 deleteAll）
+     * 和 syncNow() 一样按批提交，读完后再删除快照里没有的数据；必须在后台线程调用
+     */
+    private void refreshFullSnapshot() throws IOException {
+        Response<ResponseBody> response = RetrofitClient.getInstance().getApi().getAllOutfits().execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("网络请求失败，错误码: " + response.code());
+        }
+        SnapshotWriter writer = new SnapshotWriter();
+        try (ResponseBody body = response.body(); JsonReader reader = OutfitStreamReader.open(body)) {
+            OutfitStreamReader.readOutfits(reader, SYNC_BATCH_SIZE, writer::write);
+        }
+        db.runInTransaction(() -> {
+            writer.deleteUnseen();
+            db.settingDao().put(new Setting(KEY_PAGE_CURSOR, ""));
+        });
+        Log.d("OutfitRepo", "网络同步成功（全量接口），共 " + writer.count + " 条数据");
+    }
+
+    /**
+     * 以服务器快照为准：每批 upsert（各自一个事务）并记下 id，读完后删除本地有但快照里没有的数据
+     * 见过的 id 暂存在内存的 long 数组里（10 万条也只占几百 KB），deleteUnseen() 需要在最后的事务中调用
+     */
+    private class SnapshotWriter {
+        long[] seen = new long[1024];
+        int count;
+
+        void write(List<Outfit> batch) {
+            upsertOutfits(batch);
+            for (Outfit o : batch) {
+                if (count == seen.length) seen = Arrays.copyOf(seen, count * 2);
+                seen[count++] = o.id;
+            }
+        }
+
+        void deleteUnseen() {
+            long[] sorted = Arrays.copyOf(seen, count);
+            Arrays.sort(sorted);
+            List<Long> stale = new ArrayList<>();
+            for (Long id : db.outfitDao().getAllIds()) {
+                if (Arrays.binarySearch(sorted, id) < 0) stale.add(id);
+            }
+            deleteOutfits(stale);
+        }
+    }
+
+    private void upsertOutfits(List<Outfit> outfits) {
+        if (outfits == null || outfits.isEmpty()) return;
+        // gender 统一存小写：OutfitFilter 的 SQL 按原值比较（走索引），内存索引和 CatalogMatcher 忽略大小写
+        for (Outfit o : outfits) {
+            if (o.gender != null) o.gender = CatalogMatcher.normalize(o.gender);
+        }
+        db.runInTransaction(() -> {
+            db.outfitDao().upsertAll(outfits);
+            rewriteTags(outfits);
+        });
+    }
+
+    /**
+     * 按 TagSplitter 重写这批穿搭的标签关联，和穿搭本身在同一个事务里
+     * 标签 id 只在本次调用内缓存：事务回滚后新插入的标签 id 就失效了
+     */
+    private void rewriteTags(List<Outfit> outfits) {
+        TagDao tagDao = db.tagDao();
+        List<Long> ids = new ArrayList<>(outfits.size());
+        for (Outfit o : outfits) ids.add(o.id);
+        for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+            tagDao.deleteLinks(ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size())));
+        }
+
+        Map<String, Long> tagIds = new HashMap<>();
+        List<OutfitTag> links = new ArrayList<>();
+        for (Outfit o : outfits) {
+            for (String facet : TagSplitter.FACETS) {
+                for (String name : TagSplitter.split(facet, facetValue(o, facet))) {
+                    links.add(new OutfitTag(o.id, tagId(tagDao, tagIds, facet, name)));
+                }
+            }
+        }
+        if (!links.isEmpty()) tagDao.insertLinks(links);
+    }
+
+    private static long tagId(TagDao tagDao, Map<String, Long> cache, String facet, String name) {
+        String key = facet + '\u0000' + name;
+        Long id = cache.get(key);
+        if (id != null) return id;
+        Tag tag = new Tag();
+        tag.facet = facet;
+        tag.name = name;
+        long inserted = tagDao.insertTag(tag);
+        id = inserted != -1 ? inserted : tagDao.findId(facet, name);
+        cache.put(key, id);
+        return id;
+    }
+
+    private static String facetValue(Outfit o, String facet) {
+        switch (facet) {
+            case TagSplitter.STYLE:
+                return o.style;
+            case TagSplitter.SEASON:
+                return o.season;
+            case TagSplitter.WEATHER:
+                return o.weather;
+            case TagSplitter.SCENE:
+                return o.scene;
+            default:
+                return null;
+        }
+    }
+
+    // 分批删除，避免超过 SQLite 的参数个数限制
+    private void deleteOutfits(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return;
+        for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+            db.outfitDao().deleteByIds(ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size())));
+        }
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * 本地所有 Outfit，返回 LiveData 供 UI 观察。
+     * UI 会自动感知 refreshFromNetwork 带来的数据库变化
+     */
+    public LiveData<List<Outfit>> loadAllLocal() {
+        if (allOutfits == null) {
+            allOutfits = db.outfitDao().observeAll();
+        }
+        return allOutfits;
+    }
+
+    /**
+     * 关键字搜索 + 组合筛选，按相关度排序：标题命中优先
+     * 在内存索引上完成（位图筛选 + 子串匹配），只按结果 id 读库；目录变化后的第一次搜索先重建索引
+     * 同步执行，必须在后台线程调用；调度、防抖和取消由 OutfitViewModel 负责
+     */
+    public List<Outfit> searchRanked(OutfitFilter filter) {
+        if (filter.keyword.isEmpty()) return new ArrayList<>();
+        OutfitIndex index = outfitIndex();
+
+        long[] ids;
+        synchronized (searchLock) {
+            if (queryIndex != index) {
+                queryIndex = index;
+                indexQuery = index.newQuery();
+            }
+            indexQuery.setFilter(filter.gender, filter.style, filter.season, filter.weather, filter.scene);
+            indexQuery.run(filter.keyword);
+            ids = indexQuery.ids();
+        }
+        return loadInOrder(ids);
+    }
+
+    // 和 rankFeatures() 一样按需构建：同时有几次搜索在等时只建一次
+    private OutfitIndex outfitIndex() {
+        OutfitIndex index = outfitIndex;
+        if (index != null) return index;
+        synchronized (indexLock) {
+            index = outfitIndex;
+            if (index != null) return index;
+            int version = catalogVersion.get();
+            index = OutfitIndex.build(db.outfitDao().getAllIndexRows());
+            // 构建期间目录又变了：这次照常使用，但不缓存
+            if (version == catalogVersion.get()) outfitIndex = index;
+            return index;
+        }
+    }
+
+    /**
+     * 今日推荐：按天气、季节、性别/默认风格和收藏偏好打分，取前 request.limit 条
+     * 特征快照在目录不变时复用；同步执行，必须在后台线程调用
+     */
+    public List<Outfit> recommend(OutfitRanker.Request request) {
+        List<Long> favoriteIds = db.favoriteDao().getAllOutfitIds();
+        request.favoriteIds = new long[favoriteIds.size()];
+        for (int i = 0; i < favoriteIds.size(); i++) request.favoriteIds[i] = favoriteIds.get(i);
+
+        return loadInOrder(OutfitRanker.topK(rankFeatures(), request));
+    }
+
+    // 只读取选中的行，再按 ids 的顺序排回去（IN 查询不保证顺序）
+    private List<Outfit> loadInOrder(long[] ids) {
+        List<Outfit> rows = new ArrayList<>(ids.length);
+        List<Long> batch = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            batch.add(ids[i]);
+            if (batch.size() == ID_BATCH_SIZE || i == ids.length - 1) {
+                rows.addAll(db.outfitDao().getByIds(batch));
+                batch.clear();
+            }
+        }
+        return CatalogJoin.inOrder(ids, rows);
+    }
+
+    private OutfitRanker.Features rankFeatures() {
+        OutfitRanker.Features f = rankFeatures;
+        if (f != null) return f;
+        int version = catalogVersion.get();
+        f = OutfitRanker.Features.build(db.outfitDao().getAllTraits());
+        // 构建期间目录又变了：这次照常使用，但不缓存
+        if (version == catalogVersion.get()) rankFeatures = f;
+        return f;
+    }
+
+    /**
+     * 筛选对话框的选项计数：outfits 按筛选列分组计数，同步写库后 Room 自动重新分组；
+     * 切换选项时由 FacetCounter 在内存中汇总，不再查库。必须在主线程调用
+     */
+    public LiveData<FacetCounter> getFacetCounter() {
+        if (facetCounter == null) {
+            facetCounter = Transformations.map(db.outfitDao().observeFacetCube(), rows -> {
+                FacetCounter.Builder b = new FacetCounter.Builder();
+                for (FacetRow r : rows) b.add(r.gender, r.style, r.season, r.weather, r.scene, r.outfitCount);
+                return b.build();
+            });
+        }
+        return facetCounter;
     }
 
     /**
      * 将指定 outfit 添加为收藏（异步）
      */
     public void addFavorite(final long outfitId) {
-        executor.execute(() -> {
+        executors.diskIO().execute(() -> {
             Favorite f = new Favorite();
             f.outfitId = outfitId;
             f.addedAt = String.valueOf(System.currentTimeMillis());
-            db.favoriteDao().insert(f);
+            try {
+                // 已经收藏过时被唯一索引忽略
+                db.favoriteDao().insert(f);
+            } catch (SQLiteConstraintException e) {
+                // 外键约束：穿搭刚好被同步删除
+                Log.w("OutfitRepo", "收藏失败，穿搭不存在: " + outfitId, e);
+            }
         });
     }
 
     public LiveData<List<Favorite>> getFavorites() {
-        final MutableLiveData<List<Favorite>> live = new MutableLiveData<>();
-        executor.execute(() -> {
-            List<Favorite> list = db.favoriteDao().getAll();
-            if (list == null) list = new ArrayList<>();
-            live.postValue(list);
-        });
-        return live;
+        if (favorites == null) {
+            favorites = db.favoriteDao().observeAll();
+        }
+        return favorites;
     }
 
     /**
-     * 组合筛选 (内存筛选，逻辑保持不变)
+     * 组合筛选（保留原来的参数形式，默认按风格排序）
      */
     public LiveData<List<Outfit>> filter(final String gender, final String style,
                                          final String season, final String weather,
                                          final String scene, final String keyword) {
-        final MutableLiveData<List<Outfit>> live = new MutableLiveData<>();
-        executor.execute(() -> {
-            // 先拿所有数据
-            List<Outfit> all = db.outfitDao().getAll();
-            if (all == null) all = new ArrayList<>();
-
-            List<Outfit> out = new ArrayList<>();
-            // 处理 null 值，防止空指针
-            String g = (gender == null) ? "" : gender.trim().toLowerCase();
-            String s = (style == null) ? "" : style.trim().toLowerCase();
-            String se = (season == null) ? "" : season.trim().toLowerCase();
-            String w = (weather == null) ? "" : weather.trim().toLowerCase();
-            String sc = (scene == null) ? "" : scene.trim().toLowerCase();
-            String kw = (keyword == null) ? "" : keyword.trim().toLowerCase();
-
-            for (Outfit o : all) {
-                boolean ok = true;
-
-                // 筛选逻辑
-                if (!g.isEmpty() && !g.equals("all")) {
-                    String og = (o.gender == null) ? "" : o.gender.toLowerCase();
-                    if (!og.equals("unisex") && !og.equals(g)) ok = false;
-                }
-                if (ok && !s.isEmpty()) {
-                    String os = (o.style == null) ? "" : o.style.toLowerCase();
-                    if (!os.contains(s)) ok = false;
-                }
-                if (ok && !se.isEmpty()) {
-                    String ose = (o.season == null) ? "" : o.season.toLowerCase();
-                    if (!ose.contains(se)) ok = false;
-                }
-                if (ok && !w.isEmpty()) {
-                    String ow = (o.weather == null) ? "" : o.weather.toLowerCase();
-                    if (!ow.contains(w)) ok = false;
-                }
-                if (ok && !sc.isEmpty()) {
-                    String osc = (o.scene == null) ? "" : o.scene.toLowerCase();
-                    if (!osc.contains(sc)) ok = false;
-                }
-                if (ok && !kw.isEmpty()) {
-                    String title = (o.title == null) ? "" : o.title.toLowerCase();
-                    String styleField = (o.style == null) ? "" : o.style.toLowerCase();
-                    if (!title.contains(kw) && !styleField.contains(kw)) ok = false;
-                }
-
-                if (ok) out.add(o);
-            }
+        return filter(new OutfitFilter(gender, style, season, weather, scene, keyword, OutfitFilter.SORT_STYLE));
+    }
 
-            live.postValue(out);
-        });
-        return live;
+    /**
+     * 组合筛选 + 排序：条件下推到 SQLite 执行，只把命中的行读出来；outfits 表变化时自动更新
+     */
+    public LiveData<List<Outfit>> filter(final OutfitFilter filter) {
+        return db.outfitDao().observeQuery(filter.toQuery());
     }
 
     // 假数据填充：有了网络后端后，这个方法基本不需要了，
     // 但可以保留作为网络断开时的测试备用
     public void seedSampleDataIfEmpty() {
-        executor.execute(() -> {
+        executors.diskIO().execute(() -> {
             List<Outfit> list = db.outfitDao().getAll();
             if (list != null && list.size() > 0) return;
 
@@ -195,45 +608,37 @@ public class OutfitRepository {
         });
     }
 
-    public void shutdown() {
-        executor.shutdownNow();
-    }
+    /**
+     * 性别设置，没设置过时为 "all"
+     */
     public LiveData<String> getGenderSetting() {
-        final MutableLiveData<String> live = new MutableLiveData<>();
-        executor.execute(() -> {
-            // 从 Setting 表读取 key="gender" 的值
-            // 注意：这里假设你 SettingDao 里的 get 方法返回 String
-            String g = db.settingDao().get("gender");
-
-            // 如果没设置过(null)，默认返回 "all"
-            if (g == null) g = "all";
+        return getSetting("gender", "all");
+    }
 
-            live.postValue(g);
-        });
+    /**
+     * 可观察的设置项：settings 表里同步游标等其它行的写入也会触发 Room 重新查询，
+     * 这里用 distinctUntilChanged 过滤掉值没变的通知；同一个 key 的观察者共享一个查询
+     * 必须在主线程调用
+     */
+    public LiveData<String> getSetting(final String key, final String defaultValue) {
+        String cacheKey = key + "\u0000" + defaultValue;
+        LiveData<String> live = settings.get(cacheKey);
+        if (live == null) {
+            live = Transformations.distinctUntilChanged(Transformations.map(
+                    db.settingDao().observe(key), v -> v == null ? defaultValue : v));
+            settings.put(cacheKey, live);
+        }
         return live;
     }
+
     /**
-     * 返回当前收藏的 Outfit（从 favorites 表关联 outfits）
+     * 返回当前收藏的 Outfit（favorites JOIN outfits，按收藏时间排序）
+     * 代价只和收藏数有关；favorites 或 outfits 表变化时自动更新
      */
     public LiveData<List<Outfit>> getFavoriteOutfits() {
-        final MutableLiveData<List<Outfit>> live = new MutableLiveData<>();
-        executor.execute(() -> {
-            List<Favorite> favs = db.favoriteDao().getAll();
-            List<Outfit> all = db.outfitDao().getAll();
-            List<Outfit> results = new ArrayList<>();
-            if (favs != null && all != null) {
-                // 建立 id -> Outfit map
-                java.util.HashMap<Long, Outfit> map = new java.util.HashMap<>();
-                for (Outfit o : all) {
-                    map.put(o.id, o);
-                }
-                for (Favorite f : favs) {
-                    Outfit o = map.get(f.outfitId);
-                    if (o != null) results.add(o);
-                }
-            }
-            live.postValue(results);
-        });
-        return live;
+        if (favoriteOutfits == null) {
+            favoriteOutfits = db.favoriteDao().observeFavoriteOutfits();
+        }
+        return favoriteOutfits;
     }
-}
\ No newline at end of file
+}
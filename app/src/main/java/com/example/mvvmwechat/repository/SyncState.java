@@ -0,0 +1,27 @@
+package com.example.mvvmwechat.repository;
+
+/**
+ * SyncState - 穿搭目录与后端同步的状态
+ */
+public class SyncState {
+    public static final int IDLE = 0;
+    public static final int RUNNING = 1;
+    public static final int SUCCESS = 2;
+    public static final int ERROR = 3;
+
+    public final int status;
+    // 失败原因，只有 ERROR 时有值
+    public final String error;
+    // 最近一次成功同步的时间，没有时为 0
+    public final long lastSuccessAt;
+
+    public SyncState(int status, String error, long lastSuccessAt) {
+        this.status = status;
+        this.error = error;
+        this.lastSuccessAt = lastSuccessAt;
+    }
+
+    public boolean isRunning() {
+        return status == RUNNING;
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.mvvmwechat.repository;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.mvvmwechat.AppExecutors;
+import com.example.mvvmwechat.BuildConfig;
+import com.example.mvvmwechat.data.AppDatabase;
+import com.example.mvvmwechat.data.TryOnJob;
+import com.example.mvvmwechat.data.TryOnJobDao;
+import com.example.mvvmwechat.network.AiApi;
+import com.example.mvvmwechat.network.JobPoller;
+import com.example.mvvmwechat.network.UploadProgress;
+import com.example.mvvmwechat.util.Hashes;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TryOnRepository - 换装任务队列（Room 持久化）
+ *
+ * - enqueue()：按输入内容去重，同样的人像 + 衣服不会重复上传、重复扣费
+ * - 提交成功后先把 jobId 写库再轮询；进程被杀后 resumePending() 用保存的 jobId 继续轮询
+ * - 任务由本类驱动（应用级），离开换装页面不会中断；UI 通过 LiveData 观察任务状态
+ * - 输入图片另存在 filesDir/tryon_inputs，只在任务没结束时保留：完成或失败后删除，不会无限增长
+ * - 结果图下载到 TryOnResultCache，相同输入再次换装直接返回本地图片，不占用 API 额度；
+ *   任务记录里保存的是远程地址，本地图片被淘汰后可以重新下载
+ */
+public class TryOnRepository {
+    private static final String TAG = "TryOnRepo";
+    // 同一个任务最多提交几次（重启恢复时超过就标记失败，避免反复扣费）
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String INPUT_DIR = "tryon_inputs";
+    private static final long INPUT_GRACE_MS = 60 * 60 * 1000L;
+
+    private static volatile TryOnRepository INSTANCE;
+
+    private final Context appContext;
+    private final TryOnJobDao dao;
+    private final TryOnResultCache resultCache;
+    private final AppExecutors executors;
+    // 正在驱动的任务（行 id -> 句柄），避免同一个任务被提交/轮询两次
+    private final Map<Long, JobPoller.Handle> active = new HashMap<>();
+    // 正在上传的任务的进度（行 id -> 进度），任务结束后移除
+    private final Map<Long, MutableLiveData<UploadProgress>> uploads = new HashMap<>();
+
+    private TryOnRepository(Context context) {
+        appContext = context.getApplicationContext();
+        dao = AppDatabase.getInstance(appContext).tryOnJobDao();
+        resultCache = new TryOnResultCache(appContext);
+        executors = AppExecutors.getInstance();
+    }
+
+    public static TryOnRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (TryOnRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TryOnRepository(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 加入一个换装任务，返回该任务的可观察状态
+     * - 结果缓存命中：立即返回本地结果图，不上传、不请求
+     * - 相同输入已经完成、本地图片已被淘汰：按远程地址重新下载；地址失效时重新提交
+     * - 相同输入正在进行：只观察，不重复提交
+     * - 相同输入之前失败：重新提交
+     */
+    public LiveData<TryOnJob> enqueue(final File person, final String personType, final File garment,
+                                      final String garmentType, final String category, final String apiKey) {
+        final MediatorLiveData<TryOnJob> result = new MediatorLiveData<>();
+        executors.diskIO().execute(() -> {
+            try {
+                String personHash = Hashes.sha256(person);
+                String garmentHash = Hashes.sha256(garment);
+                String cat = category == null ? AiApi.CATEGORY_ONE_PIECES : category;
+
+                File cached = resultCache.get(personHash, garmentHash, cat);
+                if (cached != null) {
+                    Log.d(TAG, "result cache hit: " + cached.getName());
+                    result.postValue(cacheHit(personHash, garmentHash, cat, cached));
+                    return;
+                }
+
+                TryOnJob job = findOrCreate(person, personHash, personType, garment, garmentHash, garmentType, cat);
+                if (TryOnJob.STATUS_COMPLETED.equals(job.status)) {
+                    executors.network().execute(() -> restoreResult(job, apiKey, result));
+                    return;
+                }
+                // 先更新状态再开始观察，之前失败的任务不会先发出一次旧的失败状态
+                if (!job.isFinished() || TryOnJob.STATUS_FAILED.equals(job.status)) {
+                    drive(job, apiKey, TryOnJob.STATUS_FAILED.equals(job.status));
+                }
+                observe(job, result);
+            } catch (IOException e) {
+                // 没能落库（读图片失败），直接发出一个失败状态
+                Log.e(TAG, "enqueue failed", e);
+                TryOnJob failed = new TryOnJob();
+                failed.status = TryOnJob.STATUS_FAILED;
+                failed.error = "读取图片失败: " + e.getMessage();
+                result.postValue(failed);
+            }
+        });
+        return result;
+    }
+
+    private static TryOnJob cacheHit(String personHash, String garmentHash, String cat, File file) {
+        TryOnJob hit = new TryOnJob();
+        hit.personHash = personHash;
+        hit.garmentHash = garmentHash;
+        hit.category = cat;
+        hit.status = TryOnJob.STATUS_COMPLETED;
+        hit.resultUrl = Uri.fromFile(file).toString();
+        return hit;
+    }
+
+    // 已完成但本地结果图被淘汰了：重新下载远程地址；下载失败（地址过期）时重新提交。在 network 线程调用
+    private void restoreResult(TryOnJob job, String apiKey, MediatorLiveData<TryOnJob> result) {
+        if (job.resultUrl != null && job.resultUrl.startsWith("http")) {
+            try {
+                File f = resultCache.put(job.personHash, job.garmentHash, job.category, job.resultUrl);
+                deleteInputs(job);
+                result.postValue(cacheHit(job.personHash, job.garmentHash, job.category, f));
+                return;
+            } catch (IOException e) {
+                Log.w(TAG, "re-download result failed, resubmit job " + job.id, e);
+            }
+        }
+        executors.diskIO().execute(() -> {
+            drive(job, apiKey, true);
+            observe(job, result);
+        });
+    }
+
+    // 观察任务行；完成时换成本地缓存的结果图（在 diskIO 上查缓存）
+    private void observe(TryOnJob job, MediatorLiveData<TryOnJob> result) {
+        executors.mainThread().execute(() -> result.addSource(dao.observeByHash(job.inputsHash), j -> {
+            if (j == null || !TryOnJob.STATUS_COMPLETED.equals(j.status)) {
+                result.setValue(j);
+                return;
+            }
+            executors.diskIO().execute(() -> {
+                File f = resultCache.get(j.personHash, j.garmentHash, j.category);
+                if (f != null) j.resultUrl = Uri.fromFile(f).toString();
+                result.postValue(j);
+            });
+        }));
+    }
+
+    /**
+     * 任务当前这次提交的上传进度；任务不在上传时返回一个不会更新的 LiveData
+     * 每次提交都会换一个新的 LiveData，观察方在任务的 attempts 变化时要重新获取
+     */
+    public LiveData<UploadProgress> observeUploadProgress(long jobId) {
+        synchronized (uploads) {
+            MutableLiveData<UploadProgress> p = uploads.get(jobId);
+            return p != null ? p : new MutableLiveData<>();
+        }
+    }
+
+    /**
+     * 应用启动时调用：恢复所有没结束的任务
+     * submitted 的直接用保存的 jobId 继续轮询；pending 的重新提交（不超过 MAX_ATTEMPTS 次）
+     */
+    public void resumePending() {
+        executors.diskIO().execute(() -> {
+            List<TryOnJob> unfinished = dao.getUnfinished();
+            pruneInputs(unfinished);
+            for (TryOnJob job : unfinished) {
+                Log.d(TAG, "resume job " + job.id + " status=" + job.status);
+                drive(job, BuildConfig.AI_KEY, false);
+            }
+        });
+    }
+
+    // 清理没有未结束任务在用的输入图片（之前的版本从不删除）；刚写入的可能属于正在加入的任务，先不动
+    private void pruneInputs(List<TryOnJob> unfinished) {
+        File[] files = new File(appContext.getFilesDir(), INPUT_DIR).listFiles();
+        if (files == null) return;
+        Set<String> inUse = new HashSet<>();
+        for (TryOnJob job : unfinished) {
+            inUse.add(job.personPath);
+            inUse.add(job.garmentPath);
+        }
+        long cutoff = System.currentTimeMillis() - INPUT_GRACE_MS;
+        for (File f : files) {
+            if (!inUse.contains(f.getAbsolutePath()) && f.lastModified() < cutoff && !f.delete()) {
+                Log.w(TAG, "prune input failed: " + f);
+            }
+        }
+    }
+
+    // 在 diskIO 线程调用
+    private TryOnJob findOrCreate(File person, String personHash, String personType, File garment,
+                                  String garmentHash, String garmentType, String cat) throws IOException {
+        String inputsHash = Hashes.sha256(personHash + ":" + garmentHash + ":" + cat);
+
+        TryOnJob existing = dao.findByHash(inputsHash);
+        if (existing != null) {
+            // 结束的任务输入已被删除，可能要重新提交，按同样的路径再存一份
+            if (existing.isFinished()) {
+                storeInput(person, personHash);
+                storeInput(garment, garmentHash);
+            }
+            return existing;
+        }
+
+        long now = System.currentTimeMillis();
+        TryOnJob job = new TryOnJob();
+        job.inputsHash = inputsHash;
+        job.personHash = personHash;
+        job.garmentHash = garmentHash;
+        // 输入文件可能是会被覆盖的缓存文件，按内容摘要另存一份
+        job.personPath = storeInput(person, personHash).getAbsolutePath();
+        job.garmentPath = storeInput(garment, garmentHash).getAbsolutePath();
+        job.personType = personType;
+        job.garmentType = garmentType;
+        job.category = cat;
+        job.status = TryOnJob.STATUS_PENDING;
+        job.createdAt = now;
+        job.updatedAt = now;
+        job.id = dao.insert(job);
+        if (job.id == -1) {
+            // 并发插入了同样的任务
+            return dao.findByHash(inputsHash);
+        }
+        return job;
+    }
+
+    // 按内容摘要保存输入图片；同样的内容只存一份
+    private File storeInput(File src, String hash) throws IOException {
+        File dir = new File(appContext.getFilesDir(), INPUT_DIR);
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("无法创建目录: " + dir);
+        File dst = new File(dir, hash);
+        if (dst.exists() && dst.length() == src.length()) return dst;
+
+        File tmp = new File(dir, hash + ".tmp");
+        try (InputStream in = new FileInputStream(src); OutputStream out = new FileOutputStream(tmp)) {
+            byte[] buf = new byte[64 * 1024];
+            int len;
+            while ((len = in.read(buf)) != -1) out.write(buf, 0, len);
+        }
+        if (!tmp.renameTo(dst)) throw new IOException("无法保存输入图片: " + dst);
+        return dst;
+    }
+
+    /**
+     * 驱动一个任务直到结束：需要时提交，拿到 jobId 后轮询
+     * @param retry true 表示失败后重新提交
+     */
+    private void drive(TryOnJob job, String apiKey, boolean retry) {
+        final long id = job.id;
+        final JobPoller.Handle handle = new JobPoller.Handle();
+        synchronized (active) {
+            if (active.containsKey(id)) return;
+            active.put(id, handle);
+        }
+
+        if (TryOnJob.STATUS_SUBMITTED.equals(job.status) && job.jobId != null && !retry) {
+            poll(job, job.jobId, apiKey, -1, handle);
+            return;
+        }
+
+        if (!retry && job.attempts >= MAX_ATTEMPTS) {
+            finish(job, null, "提交次数过多，已放弃");
+            return;
+        }
+
+        File person = new File(job.personPath);
+        File garment = new File(job.garmentPath);
+        if (!person.exists() || !garment.exists()) {
+            finish(job, null, "输入图片已丢失");
+            return;
+        }
+
+        // 恢复（进程被杀时可能已经上传完）沿用保存的 key，后端按 key 去重；
+        // 只有失败后重新提交才换新的 key，当作一次新的提交
+        String idempotencyKey = retry || job.idempotencyKey == null
+                ? job.inputsHash + "-" + (job.attempts + 1) : job.idempotencyKey;
+        // 先换上这次提交的进度，再更新 attempts：观察方看到新的 attempts 时拿到的就是这一次的进度
+        UploadProgress.Listener progress = uploadListener(id);
+        dao.beginAttempt(id, idempotencyKey, System.currentTimeMillis());
+        AiApi.submitTryOn(handle, person, job.personType, garment, job.garmentType, job.category, apiKey, idempotencyKey,
+                progress, new AiApi.SubmitCallback() {
+            @Override
+            public void onSubmitted(String jobId, long etaMs) {
+                clearUpload(id);
+                // 先把 jobId 落库，进程此后被杀也能继续轮询，不会重复提交
+                executors.diskIO().execute(() -> {
+                    dao.markSubmitted(id, jobId, System.currentTimeMillis());
+                    poll(job, jobId, apiKey, etaMs, handle);
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                clearUpload(id);
+                finish(job, null, e.getMessage() == null ? "提交失败" : e.getMessage());
+            }
+        });
+    }
+
+    // 进度按整百分比去重后再 post，避免每 8KB 通知一次主线程
+    private UploadProgress.Listener uploadListener(long id) {
+        final MutableLiveData<UploadProgress> live = new MutableLiveData<>();
+        synchronized (uploads) {
+            uploads.put(id, live);
+        }
+        return new UploadProgress.Listener() {
+            private int lastPercent = -2;
+
+            @Override
+            public void onProgress(long bytesSent, long totalBytes) {
+                UploadProgress p = new UploadProgress(bytesSent, totalBytes);
+                int percent = p.percent();
+                if (percent != lastPercent) {
+                    lastPercent = percent;
+                    live.postValue(p);
+                }
+            }
+        };
+    }
+
+    private void clearUpload(long id) {
+        synchronized (uploads) {
+            uploads.remove(id);
+        }
+    }
+
+    private void poll(TryOnJob job, String jobId, String apiKey, long firstDelayMs, JobPoller.Handle handle) {
+        AiApi.pollTryOn(handle, jobId, apiKey, firstDelayMs, new AiApi.UrlCallback() {
+            @Override
+            public void onSuccess(String url) {
+                finish(job, url, null);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                finish(job, null, e == null || e.getMessage() == null ? "未知错误" : e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 结束任务：成功时先把结果图下载进缓存，再标记完成；任务记录里始终保存远程地址，本地图片单独从缓存查
+     */
+    private void finish(TryOnJob job, String url, String error) {
+        final long id = job.id;
+        if (url == null) {
+            executors.diskIO().execute(() -> {
+                dao.markFailed(id, error, System.currentTimeMillis());
+                deleteInputs(job);
+                release(id);
+            });
+            return;
+        }
+        executors.network().execute(() -> {
+            try {
+                resultCache.put(job.personHash, job.garmentHash, job.category, url);
+            } catch (IOException e) {
+                Log.w(TAG, "cache result failed, show remote url", e);
+            }
+            dao.markCompleted(id, url, System.currentTimeMillis());
+            deleteInputs(job);
+            release(id);
+        });
+    }
+
+    // 任务结束后删除输入图片；还有没结束的任务在用同一个文件时保留
+    private void deleteInputs(TryOnJob job) {
+        deleteInput(job.personPath);
+        deleteInput(job.garmentPath);
+    }
+
+    private void deleteInput(String path) {
+        if (path == null || dao.countUnfinishedUsing(path) > 0) return;
+        File f = new File(path);
+        if (f.exists() && !f.delete()) Log.w(TAG, "delete input failed: " + path);
+    }
+
+    private void release(long id) {
+        synchronized (active) {
+            active.remove(id);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.mvvmwechat.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.mvvmwechat.data.AppDatabase;
+import com.example.mvvmwechat.data.TryOnResult;
+import com.example.mvvmwechat.data.TryOnResultDao;
+import com.example.mvvmwechat.network.AiApi;
+import com.example.mvvmwechat.util.Hashes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * TryOnResultCache - 换装结果图的磁盘缓存
+ *
+ * - 键：(人像摘要, 衣服摘要, 类别)；图片文件放在 cacheDir/tryon_results，索引放在 Room 的 try_on_results 表
+ * - 总大小超过 MAX_BYTES 时按 lastAccessAt 淘汰最久没用过的结果
+ * - 所有方法都是同步的，必须在后台线程调用
+ */
+class TryOnResultCache {
+    private static final String TAG = "TryOnResultCache";
+    private static final String DIR = "tryon_results";
+    private static final long MAX_BYTES = 100L * 1024 * 1024;
+    private static final int EVICT_BATCH = 16;
+
+    private final File dir;
+    private final TryOnResultDao dao;
+
+    TryOnResultCache(Context context) {
+        dir = new File(context.getCacheDir(), DIR);
+        dao = AppDatabase.getInstance(context).tryOnResultDao();
+    }
+
+    /**
+     * 查找缓存的结果图；文件已被系统清理时顺便删掉索引
+     */
+    File get(String personHash, String garmentHash, String category) {
+        TryOnResult r = dao.get(personHash, garmentHash, category);
+        if (r == null) return null;
+        File f = r.filePath == null ? null : new File(r.filePath);
+        if (f == null || !f.exists()) {
+            dao.delete(r);
+            return null;
+        }
+        dao.touch(personHash, garmentHash, category, System.currentTimeMillis());
+        return f;
+    }
+
+    /**
+     * 下载远程结果图存入缓存，并按大小上限淘汰旧结果
+     */
+    File put(String personHash, String garmentHash, String category, String url) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("无法创建目录: " + dir);
+        File f = new File(dir, Hashes.sha256(personHash + ":" + garmentHash + ":" + category));
+        long size = AiApi.download(url, f);
+
+        long now = System.currentTimeMillis();
+        TryOnResult r = new TryOnResult();
+        r.personHash = personHash;
+        r.garmentHash = garmentHash;
+        r.category = category;
+        r.filePath = f.getAbsolutePath();
+        r.sourceUrl = url;
+        r.sizeBytes = size;
+        r.createdAt = now;
+        r.lastAccessAt = now;
+        dao.upsert(r);
+
+        trimToSize(f);
+        return f;
+    }
+
+    // keep：刚写入的文件，不淘汰
+    private void trimToSize(File keep) {
+        long total = dao.totalSize();
+        while (total > MAX_BYTES) {
+            List<TryOnResult> oldest = dao.leastRecentlyUsed(EVICT_BATCH);
+            boolean removed = false;
+            for (TryOnResult r : oldest) {
+                if (total <= MAX_BYTES) break;
+                if (keep.getAbsolutePath().equals(r.filePath)) continue;
+                if (r.filePath != null) new File(r.filePath).delete();
+                dao.delete(r);
+                total -= r.sizeBytes;
+                removed = true;
+            }
+            if (!removed) break;
+        }
+        Log.d(TAG, "cache size: " + (total / 1024) + " KB");
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.mvvmwechat.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+
+import com.example.mvvmwechat.AppExecutors;
+import com.example.mvvmwechat.data.AppDatabase;
+import com.example.mvvmwechat.data.Setting;
+import com.example.mvvmwechat.data.WeatherCache;
+import com.example.mvvmwechat.data.WeatherDao;
+import com.example.mvvmwechat.network.BackendApi;
+import com.example.mvvmwechat.util.GeoHash;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WeatherRepository - 天气查询（OpenWeatherMap）+ Room 缓存
+ *
+ * - 按城市名或定位所在的 geohash 格子缓存，同一个格子 TTL 内最多请求一次
+ * - stale-while-revalidate：有缓存就先显示（哪怕已经过期），过期了再在后台刷新
+ * - 最近一次查询的格子记在 settings 里，getCurrentWeather() 供穿搭推荐按天气排序使用
+ */
+public class WeatherRepository {
+    private static final String TAG = "WeatherRepo";
+    private static final String API_KEY = "d75caa95c39a271f92ee599a050040f6";
+    private static final String API_URL = "https://api.openweathermap.org/data/2.5/weather?lang=zh_cn&units=metric&appid="
+            + API_KEY;
+    private static final String KEY_CURRENT_BUCKET = "weather_bucket";
+    // 约 4.9km 见方的格子
+    private static final int GEOHASH_PRECISION = 5;
+    public static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(30);
+    // 超过这个时间没刷新过的格子直接清掉
+    private static final long MAX_AGE_MS = TimeUnit.DAYS.toMillis(7);
+
+    private static volatile WeatherRepository INSTANCE;
+
+    private final AppDatabase db;
+    private final WeatherDao dao;
+    private final AppExecutors executors;
+    private volatile long ttlMs = DEFAULT_TTL_MS;
+
+    // 正在请求的格子，同一个格子同时只发一个请求
+    private final Set<String> inFlight = new HashSet<>();
+    // 每个格子的刷新状态（只在主线程创建，postValue 更新）
+    private final Map<String, MutableLiveData<Fetch>> fetches = new HashMap<>();
+    private final Map<String, LiveData<WeatherState>> states = new HashMap<>();
+    private LiveData<WeatherCache> currentWeather;
+
+    private static class Fetch {
+        final boolean running;
+        final String error;
+
+        Fetch(boolean running, String error) {
+            this.running = running;
+            this.error = error;
+        }
+    }
+
+    private WeatherRepository(Context context) {
+        db = AppDatabase.getInstance(context.getApplicationContext());
+        dao = db.weatherDao();
+        executors = AppExecutors.getInstance();
+    }
+
+    public static WeatherRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (WeatherRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new WeatherRepository(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 缓存有效期，默认 DEFAULT_TTL_MS
+     */
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * 按城市名查询；必须在主线程调用
+     * @param forceRefresh true 时忽略 TTL 立即刷新（用户点刷新）
+     */
+    public LiveData<WeatherState> forCity(String city, boolean forceRefresh) {
+        String bucket = "city:" + city.trim().toLowerCase(Locale.ROOT);
+        String url;
+        try {
+            url = API_URL + "&q=" + URLEncoder.encode(city.trim(), "UTF-8");
+        } catch (java.io.UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return load(bucket, url, forceRefresh);
+    }
+
+    /**
+     * 按经纬度查询，相近的位置（同一个 geohash 格子）共用一份缓存；必须在主线程调用
+     */
+    public LiveData<WeatherState> forLocation(double lat, double lon, boolean forceRefresh) {
+        String bucket = "geo:" + GeoHash.encode(lat, lon, GEOHASH_PRECISION);
+        String url = API_URL + "&lat=" + lat + "&lon=" + lon;
+        return load(bucket, url, forceRefresh);
+    }
+
+    /**
+     * 最近一次查询的位置的天气（没有查过时为 null），缓存更新时自动通知
+     */
+    public LiveData<WeatherCache> getCurrentWeather() {
+        if (currentWeather == null) {
+            currentWeather = Transformations.switchMap(
+                    Transformations.distinctUntilChanged(db.settingDao().observe(KEY_CURRENT_BUCKET)),
+                    bucket -> bucket == null ? new MutableLiveData<>(null) : dao.observe(bucket));
+        }
+        return currentWeather;
+    }
+
+    private LiveData<WeatherState> load(String bucket, String url, boolean force) {
+        LiveData<WeatherState> state = state(bucket);
+        executors.diskIO().execute(() -> {
+            db.settingDao().put(new Setting(KEY_CURRENT_BUCKET, bucket));
+            WeatherCache cached = dao.get(bucket);
+            if (!force && cached != null && !isStale(cached)) return;
+            revalidate(bucket, url);
+        });
+        return state;
+    }
+
+    private LiveData<WeatherState> state(String bucket) {
+        LiveData<WeatherState> state = states.get(bucket);
+        if (state != null) return state;
+
+        MutableLiveData<Fetch> fetch = new MutableLiveData<>(new Fetch(false, null));
+        fetches.put(bucket, fetch);
+        LiveData<WeatherCache> cache = dao.observe(bucket);
+
+        MediatorLiveData<WeatherState> merged = new MediatorLiveData<>();
+        Runnable update = () -> {
+            WeatherCache w = cache.getValue();
+            Fetch f = fetch.getValue();
+            merged.setValue(new WeatherState(w, f != null && f.running, f == null ? null : f.error,
+                    w != null && isStale(w)));
+        };
+        merged.addSource(cache, w -> update.run());
+        merged.addSource(fetch, f -> update.run());
+        states.put(bucket, merged);
+        return merged;
+    }
+
+    private boolean isStale(WeatherCache w) {
+        return System.currentTimeMillis() - w.fetchedAt >= ttlMs;
+    }
+
+    // 后台刷新一个格子；同一个格子已经在请求时直接返回
+    private void revalidate(String bucket, String url) {
+        synchronized (inFlight) {
+            if (!inFlight.add(bucket)) return;
+        }
+        postFetch(bucket, new Fetch(true, null));
+        executors.network().execute(() -> {
+            String error = null;
+            try {
+                WeatherCache w = parse(BackendApi.syncGet(url));
+                w.bucket = bucket;
+                w.fetchedAt = System.currentTimeMillis();
+                dao.upsert(w);
+                dao.deleteOlderThan(w.fetchedAt - MAX_AGE_MS);
+            } catch (IOException | JSONException e) {
+                Log.w(TAG, "weather refresh failed for " + bucket, e);
+                error = e.getMessage() == null ? "获取失败" : e.getMessage();
+            } finally {
+                synchronized (inFlight) {
+                    inFlight.remove(bucket);
+                }
+            }
+            postFetch(bucket, new Fetch(false, error));
+        });
+    }
+
+    private void postFetch(String bucket, Fetch f) {
+        // fetches 只在主线程写入，这里切回主线程再读
+        executors.mainThread().execute(() -> {
+            MutableLiveData<Fetch> live = fetches.get(bucket);
+            if (live != null) live.setValue(f);
+        });
+    }
+
+    private static WeatherCache parse(String json) throws JSONException {
+        JSONObject o = new JSONObject(json);
+        JSONObject first = o.getJSONArray("weather").getJSONObject(0);
+        WeatherCache w = new WeatherCache();
+        w.cityName = o.optString("name");
+        w.description = first.optString("description");
+        w.conditionId = first.optInt("id");
+        w.temperature = o.getJSONObject("main").getDouble("temp");
+        w.tag = tagFor(w.conditionId);
+        return w;
+    }
+
+    /**
+     * OpenWeatherMap 天气代码 -> 穿搭的天气标签
+     * https://openweathermap.org/weather-conditions
+     */
+    static String tagFor(int conditionId) {
+        if (conditionId >= 600 && conditionId < 700) return "雪";
+        if (conditionId >= 200 && conditionId < 600) return "雨";
+        if (conditionId == 800 || conditionId == 801) return "晴";
+        return "阴";
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.mvvmwechat.repository;
+
+import com.example.mvvmwechat.data.WeatherCache;
+
+/**
+ * WeatherState - 某个位置/城市的天气：缓存的数据 + 后台刷新状态
+ */
+public class WeatherState {
+    // 缓存的天气，还没查到过时为 null
+    public final WeatherCache weather;
+    // 正在向服务器刷新（有旧数据时照常显示旧数据）
+    public final boolean refreshing;
+    // 最近一次刷新失败的原因
+    public final String error;
+    // 数据已超过 TTL
+    public final boolean stale;
+
+    public WeatherState(WeatherCache weather, boolean refreshing, String error, boolean stale) {
+        this.weather = weather;
+        this.refreshing = refreshing;
+        this.error = error;
+        this.stale = stale;
+    }
+}
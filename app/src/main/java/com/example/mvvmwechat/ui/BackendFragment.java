@@ -13,17 +13,16 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.mvvmwechat.AppExecutors;
 import com.example.mvvmwechat.R;
 import com.example.mvvmwechat.network.BackendApi;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 public class BackendFragment extends Fragment {
     private TextView tvResult;
     private Button btnRefresh;
     private Button btnWeather; // 新增按钮变量
-    private final ExecutorService ex = Executors.newSingleThreadExecutor();
+    // 与 View 生命周期绑定：View 销毁时取消请求、丢弃回调
+    private AppExecutors.Scope tasks;
 
     @Nullable
     @Override
@@ -37,6 +36,7 @@ public class BackendFragment extends Fragment {
         tvResult = view.findViewById(R.id.tv_result);
         btnRefresh = view.findViewById(R.id.btn_refresh);
         btnWeather = view.findViewById(R.id.btn_weather); // 绑定视图
+        tasks = AppExecutors.getInstance().scope(getViewLifecycleOwner());
 
         btnRefresh.setOnClickListener(v -> fetchFromBackend());
 
@@ -49,21 +49,17 @@ public class BackendFragment extends Fragment {
 
     private void fetchFromBackend() {
         tvResult.setText("加载中...");
-        ex.execute(() -> {
+        tasks.execute(AppExecutors.getInstance().network(), () -> {
             try {
                 // 这里假设你的 BackendApi 类工作正常
                 String json = BackendApi.syncGet("/outfits");
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> tvResult.setText(json));
-                }
+                tasks.post(() -> tvResult.setText(json));
             } catch (Exception e) {
                 e.printStackTrace();
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        tvResult.setText("获取失败：" + e.getMessage());
-                        Toast.makeText(getActivity(), "请求失败", Toast.LENGTH_SHORT).show();
-                    });
-                }
+                tasks.post(() -> {
+                    tvResult.setText("获取失败：" + e.getMessage());
+                    Toast.makeText(getActivity(), "请求失败", Toast.LENGTH_SHORT).show();
+                });
             }
         });
     }
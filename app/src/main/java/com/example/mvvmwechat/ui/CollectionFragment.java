@@ -12,16 +12,10 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
+import com.bumptech.glide.Glide;
 import com.example.mvvmwechat.R;
-import com.example.mvvmwechat.data.AppDatabase;
-import com.example.mvvmwechat.data.Favorite;
 import com.example.mvvmwechat.data.Outfit;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.example.mvvmwechat.repository.OutfitRepository;
 
 /**
  * CollectionFragment: 读取 favorites 并展示对应的 Outfit 项
@@ -30,7 +24,6 @@ public class CollectionFragment extends Fragment {
 
     private RecyclerView rv;
     private OutfitsFragment.OutfitAdapter adapter;
-    private final ExecutorService ex = Executors.newSingleThreadExecutor();
 
     @Nullable
     @Override
@@ -42,7 +35,9 @@ public class CollectionFragment extends Fragment {
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         rv = view.findViewById(R.id.rv_collection);
-        rv.setLayoutManager(new StaggeredGridLayoutManager(2, StaggeredGridLayoutManager.VERTICAL));
+        rv.setLayoutManager(new StaggeredGridLayoutManager(OutfitImages.SPAN_COUNT,
+                StaggeredGridLayoutManager.VERTICAL));
+        OutfitImages.attachPreloader(rv, Glide.with(this));
 
         // ⚠️ 修复报错：使用匿名内部类，实现两个方法
         adapter = new OutfitsFragment.OutfitAdapter(requireContext(), new OutfitsFragment.OutfitAdapter.OnItemClickListener() {
@@ -65,26 +60,9 @@ public class CollectionFragment extends Fragment {
         loadFavorites();
     }
 
+    // 观察收藏列表：收藏或穿搭数据变化时 Room 自动通知，不需要手动重新加载
     private void loadFavorites() {
-        ex.execute(() -> {
-            // 你的加载逻辑保持不变
-            List<Favorite> favs = AppDatabase.getInstance(requireContext()).favoriteDao().getAll();
-            List<Outfit> all = AppDatabase.getInstance(requireContext()).outfitDao().getAll();
-            HashMap<Long, Outfit> map = new HashMap<>();
-            if (all != null) {
-                for (Outfit o : all) map.put(o.id, o);
-            }
-            List<Outfit> results = new ArrayList<>();
-            if (favs != null) {
-                for (Favorite f : favs) {
-                    Outfit o = map.get(f.outfitId);
-                    if (o != null) results.add(o);
-                }
-            }
-            final List<Outfit> finalResults = results;
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> adapter.submitList(finalResults));
-            }
-        });
+        OutfitRepository.getInstance(requireContext()).getFavoriteOutfits()
+                .observe(getViewLifecycleOwner(), adapter::submitList);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.example.mvvmwechat.ui;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.mvvmwechat.data.Outfit;
+
+import java.util.Objects;
+
+/**
+ * OutfitDiffCallback - 各个 Outfit 列表 Adapter 共用的差分规则
+ *
+ * - 同一件穿搭以 Outfit.id 判断
+ * - 只比较列表上显示的字段，其它字段变化不触发重新绑定（也就不会重新加载图片）
+ */
+public class OutfitDiffCallback extends DiffUtil.ItemCallback<Outfit> {
+
+    public static final OutfitDiffCallback INSTANCE = new OutfitDiffCallback();
+
+    // ListAdapter 使用：差分在后台线程计算，结果回到主线程再分发
+    public static final AsyncDifferConfig<Outfit> CONFIG = new AsyncDifferConfig.Builder<>(INSTANCE).build();
+
+    private OutfitDiffCallback() {}
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Outfit oldItem, @NonNull Outfit newItem) {
+        return oldItem.id == newItem.id;
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Outfit oldItem, @NonNull Outfit newItem) {
+        // 网格绑定的是 OutfitImages.thumbUrl()（缩略图优先），原图地址用于详情和换装预取
+        return Objects.equals(oldItem.title, newItem.title)
+                && Objects.equals(oldItem.thumbnailPath, newItem.thumbnailPath)
+                && Objects.equals(oldItem.imagePath, newItem.imagePath);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.mvvmwechat.ui;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
+import com.example.mvvmwechat.data.Outfit;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * OutfitImages - 穿搭瀑布流的缩略图请求
+ *
+ * - 优先用后端提供的缩略图地址，没有时用原图
+ * - 按列宽解码（高度不限，保持比例），用 RGB_565，内存占用约为 ARGB_8888 原图的几十分之一
+ * - 列表绑定和预加载必须用同一个 thumbnail() 构造请求，尺寸和选项一致才能命中同一份缓存
+ */
+public final class OutfitImages {
+    public static final int SPAN_COUNT = 2;
+    // 预加载滑动方向前方的几项（约 3 行）
+    private static final int PRELOAD_ITEMS = SPAN_COUNT * 3;
+
+    /**
+     * 能按位置取穿搭的 Adapter（不触发分页加载）
+     */
+    public interface Source {
+        @Nullable
+        Outfit peekOutfit(int position);
+    }
+
+    private OutfitImages() {}
+
+    public static String thumbUrl(Outfit o) {
+        return o.thumbnailPath != null && !o.thumbnailPath.isEmpty() ? o.thumbnailPath : o.imagePath;
+    }
+
+    // 一列的宽度（像素）
+    public static int columnWidth(Context ctx) {
+        return ctx.getResources().getDisplayMetrics().widthPixels / SPAN_COUNT;
+    }
+
+    public static RequestBuilder<Drawable> thumbnail(RequestManager glide, Outfit o, int width) {
+        return glide.load(thumbUrl(o))
+                .override(width, Target.SIZE_ORIGINAL)
+                .downsample(DownsampleStrategy.CENTER_INSIDE)
+                .format(DecodeFormat.PREFER_RGB_565)
+                // 不做变换：按宽度解码已经是最终尺寸，ImageView 自己 fitCenter
+                .dontTransform()
+                .placeholder(android.R.drawable.ic_menu_gallery);
+    }
+
+    /**
+     * 给列表加预加载：滑动时提前下载并解码前方几项的缩略图
+     * 列表可能切换 Adapter（分页 / 搜索结果），每次都从当前 Adapter 取数据
+     */
+    public static void attachPreloader(RecyclerView rv, RequestManager glide) {
+        final int width = columnWidth(rv.getContext());
+        ListPreloader.PreloadModelProvider<Outfit> models = new ListPreloader.PreloadModelProvider<Outfit>() {
+            @NonNull
+            @Override
+            public List<Outfit> getPreloadItems(int position) {
+                RecyclerView.Adapter<?> adapter = rv.getAdapter();
+                Outfit o = adapter instanceof Source ? ((Source) adapter).peekOutfit(position) : null;
+                return o == null ? Collections.emptyList() : Collections.singletonList(o);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull Outfit item) {
+                return thumbnail(glide, item, width);
+            }
+        };
+        rv.addOnScrollListener(new RecyclerViewPreloader<>(glide, models,
+                new FixedPreloadSizeProvider<>(width, Target.SIZE_ORIGINAL), PRELOAD_ITEMS));
+    }
+}
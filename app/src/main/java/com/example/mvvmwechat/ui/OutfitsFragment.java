@@ -8,6 +8,7 @@ import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
 import android.widget.ImageButton;
@@ -18,33 +19,47 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
 import com.bumptech.glide.Glide;
 import com.example.mvvmwechat.R;
-import com.example.mvvmwechat.data.AppDatabase; // 引入数据库以便读取设置
+import com.example.mvvmwechat.core.FacetCounter;
 import com.example.mvvmwechat.data.Outfit;
+import com.example.mvvmwechat.data.OutfitFilter;
 import com.example.mvvmwechat.viewmodel.OutfitViewModel;
+import com.example.mvvmwechat.viewmodel.SearchResult;
 
 import java.util.ArrayList;
-import java.util.Collections; // 用于排序
-import java.util.Comparator;  // 用于自定义排序规则
 import java.util.List;
-import java.util.concurrent.ExecutorService; // 用于后台读取设置
-import java.util.concurrent.Executors;
 
 /**
  * OutfitsFragment (MVVM 版 + 排序功能):
  * - 结合了设置模块的性别设置
- * - 新增：结合设置模块的默认展示顺序（风格/季节/天气）
+ * - 新增：结合设置模块的默认展示顺序（风格/季节/天气/今日推荐）
  */
 public class OutfitsFragment extends Fragment {
 
+    // 筛选对话框各维度的候选项，第一项表示不限；顺序与 FacetCounter 的维度编号一致
+    private static final String[][] FACET_OPTIONS = {
+            {"all", "male", "female", "unisex"},
+            {"", "甜美", "休闲", "职业", "运动"},
+            {"", "春", "夏", "秋", "冬"},
+            {"", "晴", "雨", "雪", "阴"},
+            {"", "约会", "上学", "工作", "运动"}
+    };
+
     private OutfitViewModel viewModel;
     private RecyclerView recyclerView;
-    private OutfitAdapter adapter;
-    private List<Outfit> fullList = new ArrayList<>(); // 内存中保存一份完整数据用于筛选
+    private FeedAdapter adapter;
+    // 搜索模式下展示按相关度排序的搜索结果
+    private OutfitAdapter searchAdapter;
+    private long shownSearchGeneration = -1;
+    private boolean searching;
+    // 今日推荐模式下展示打分选出的前几条
+    private OutfitAdapter recommendAdapter;
 
     // 筛选条件变量
     private String selGender = "all"; // 这个值会根据数据库设置自动更新
@@ -52,10 +67,11 @@ public class OutfitsFragment extends Fragment {
     private String selSeason = "";
     private String selWeather = "";
     private String selScene = "";
-    private String selKeyword = "";
 
     // 【新增】当前排序模式，默认为 style
-    private String currentSortMode = "style";
+    private String currentSortMode = OutfitFilter.SORT_STYLE;
+    private boolean genderLoaded;
+    private boolean sortModeLoaded;
 
     @Nullable
     @Override
@@ -71,9 +87,11 @@ public class OutfitsFragment extends Fragment {
         viewModel = new ViewModelProvider(this).get(OutfitViewModel.class);
 
         recyclerView = view.findViewById(R.id.recycler);
-        recyclerView.setLayoutManager(new StaggeredGridLayoutManager(2, StaggeredGridLayoutManager.VERTICAL));
+        recyclerView.setLayoutManager(new StaggeredGridLayoutManager(OutfitImages.SPAN_COUNT,
+                StaggeredGridLayoutManager.VERTICAL));
+        OutfitImages.attachPreloader(recyclerView, Glide.with(this));
 
-        adapter = new OutfitAdapter(requireContext(), new OutfitAdapter.OnItemClickListener() {
+        OutfitAdapter.OnItemClickListener clickListener = new OutfitAdapter.OnItemClickListener() {
             @Override
             public void onFavoriteClick(Outfit outfit) {
                 // 点击爱心：执行收藏
@@ -86,267 +104,205 @@ public class OutfitsFragment extends Fragment {
                 // 点击图片/卡片
                 Toast.makeText(requireContext(), "查看详情：" + outfit.title, Toast.LENGTH_SHORT).show();
             }
-        });
+        };
+        adapter = new FeedAdapter(requireContext(), clickListener);
+        searchAdapter = new OutfitAdapter(requireContext(), clickListener);
+        recommendAdapter = new OutfitAdapter(requireContext(), clickListener);
 
         recyclerView.setAdapter(adapter);
 
-        // 观察穿搭数据 (从 Python/本地数据库获取)
-        viewModel.loadAll().observe(getViewLifecycleOwner(), outfits -> {
-            fullList.clear();
-            if (outfits != null) fullList.addAll(outfits);
+        // 观察分页后的筛选结果 (筛选和排序都在 SQLite 中完成)
+        viewModel.getFeed().observe(getViewLifecycleOwner(),
+                pagingData -> adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
 
-            // 数据加载完成后，应用当前的筛选条件和排序
+        // 观察设置 (性别 + 排序模式)：设置页修改后 Room 自动通知，不需要在 onResume 重新查询
+        // 两个设置都读到之后才开始分页，避免先用默认值加载一次
+        viewModel.getGenderSetting().observe(getViewLifecycleOwner(), gender -> {
+            selGender = gender;
+            genderLoaded = true;
+            applyFiltersAndShow();
+        });
+        viewModel.getSortModeSetting().observe(getViewLifecycleOwner(), sortMode -> {
+            currentSortMode = sortMode;
+            sortModeLoaded = true;
             applyFiltersAndShow();
+            showCurrentAdapter();
         });
 
+        // 今日推荐（天气、设置、收藏变化时 ViewModel 自动重新打分）
+        viewModel.getRecommendations().observe(getViewLifecycleOwner(), recommendAdapter::submitList);
+
+        // 同步失败时提示（本地数据照常展示）
+        viewModel.getError().observe(getViewLifecycleOwner(), err -> {
+            if (err != null) {
+                Toast.makeText(requireContext(), "同步失败：" + err, Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        // 保持筛选计数的分组查询处于活跃状态，打开筛选对话框时直接有数据
+        viewModel.getFacetCounter().observe(getViewLifecycleOwner(), counter -> {});
+
+        // 观察搜索流：有关键字时展示搜索结果，关键字清空后回到分页列表
+        viewModel.getSearchResults().observe(getViewLifecycleOwner(), this::showSearchResult);
+
         // 设置搜索框监听
         EditText etSearch = view.findViewById(R.id.etSearch);
         ImageButton btnFilter = view.findViewById(R.id.btnFilter);
+        ImageButton btnRefresh = view.findViewById(R.id.btnRefresh);
 
         etSearch.addTextChangedListener(new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {}
             @Override public void afterTextChanged(Editable s) {
-                selKeyword = s.toString().trim();
-                applyFiltersAndShow(); // 实时搜索
+                // 防抖、取消过期查询都在 ViewModel 中完成
+                viewModel.search(s.toString());
             }
         });
 
         btnFilter.setOnClickListener(v -> showFilterDialog());
-    }
-
-    /**
-     * ⚠️ 生命周期 onResume
-     * 每次回到页面，重新读取数据库里的设置 (性别 + 排序模式)
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        loadSettingsAndRefresh();
-    }
 
-    /**
-     * 【新增】读取设置并刷新列表
-     * 这里使用 ExecutorService 直接查库，与 SettingsFragment 逻辑保持一致
-     */
-    private void loadSettingsAndRefresh() {
-        ExecutorService ex = Executors.newSingleThreadExecutor();
-        ex.execute(() -> {
-            if (getContext() == null) return;
-            AppDatabase db = AppDatabase.getInstance(requireContext());
-
-            // 1. 读取性别设置
-            String genderSetting = db.settingDao().get("gender");
-            // 2. 读取排序模式设置
-            String sortSetting = db.settingDao().get("sort_mode");
-
-            // 切换回主线程更新 UI
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> {
-                    // 更新性别变量
-                    if (genderSetting != null) {
-                        this.selGender = genderSetting;
-                    }
-                    // 更新排序变量
-                    if (sortSetting != null) {
-                        this.currentSortMode = sortSetting;
-                    }
-                    // 应用新设置
-                    applyFiltersAndShow();
-                });
-            }
-        });
+        // 手动刷新：同步进行中时按钮不可点
+        btnRefresh.setOnClickListener(v -> viewModel.refresh());
+        viewModel.getLoading().observe(getViewLifecycleOwner(), running -> btnRefresh.setEnabled(!running));
     }
 
     /**
-     * 本地筛选 + 排序逻辑
+     * 把当前筛选条件 + 排序模式交给 ViewModel，由 SQLite 完成筛选和排序
+     * 关键字不放在这里，由搜索流单独处理
      */
     private void applyFiltersAndShow() {
-        if (fullList == null) {
-            adapter.submitList(new ArrayList<>());
-            return;
-        }
-        List<Outfit> out = new ArrayList<>();
-
-        String g = (selGender == null) ? "all" : selGender.toLowerCase();
-        String s = (selStyle == null) ? "" : selStyle.toLowerCase();
-        String se = (selSeason == null) ? "" : selSeason.toLowerCase();
-        String w = (selWeather == null) ? "" : selWeather.toLowerCase();
-        String sc = (selScene == null) ? "" : selScene.toLowerCase();
-        String kw = (selKeyword == null) ? "" : selKeyword.toLowerCase();
-
-        // --- 1. 执行筛选 ---
-        for (Outfit o : fullList) {
-            boolean ok = true;
-
-            // 性别筛选
-            if (!g.isEmpty() && !g.equals("all")) {
-                String og = (o.gender == null) ? "" : o.gender.toLowerCase();
-                if (!og.equals("unisex") && !og.equals(g)) ok = false;
-            }
-            // 风格筛选
-            if (ok && !s.isEmpty()) {
-                String os = (o.style == null) ? "" : o.style.toLowerCase();
-                if (!os.contains(s)) ok = false;
-            }
-            // 季节筛选
-            if (ok && !se.isEmpty()) {
-                String ose = (o.season == null) ? "" : o.season.toLowerCase();
-                if (!ose.contains(se)) ok = false;
-            }
-            // 天气筛选
-            if (ok && !w.isEmpty()) {
-                String ow = (o.weather == null) ? "" : o.weather.toLowerCase();
-                if (!ow.contains(w)) ok = false;
-            }
-            // 场景筛选
-            if (ok && !sc.isEmpty()) {
-                String osc = (o.scene == null) ? "" : o.scene.toLowerCase();
-                if (!osc.contains(sc)) ok = false;
-            }
-            // 关键字搜索
-            if (ok && !kw.isEmpty()) {
-                String title = (o.title == null) ? "" : o.title.toLowerCase();
-                String styleField = (o.style == null) ? "" : o.style.toLowerCase();
-                if (!title.contains(kw) && !styleField.contains(kw)) ok = false;
-            }
-
-            if (ok) out.add(o);
-        }
-
-        // --- 2. 【新增】执行排序 ---
-        sortList(out);
-
-        // --- 3. 提交数据 ---
-        adapter.submitList(out);
+        if (!genderLoaded || !sortModeLoaded) return;
+        viewModel.setFilter(new OutfitFilter(selGender, selStyle, selSeason, selWeather,
+                selScene, "", currentSortMode));
     }
 
-    /**
-     * 【新增】根据 currentSortMode 对列表进行排序
-     */
-    private void sortList(List<Outfit> list) {
-        if (list == null || list.isEmpty()) return;
-
-        switch (currentSortMode) {
-            case "season":
-                // 按季节顺序排序：春 -> 夏 -> 秋 -> 冬
-                Collections.sort(list, new Comparator<Outfit>() {
-                    @Override
-                    public int compare(Outfit o1, Outfit o2) {
-                        return getSeasonScore(o1.season) - getSeasonScore(o2.season);
-                    }
-                });
-                break;
-
-            case "weather":
-                // 按天气顺序排序：晴 -> 阴 -> 雨 -> 雪
-                Collections.sort(list, new Comparator<Outfit>() {
-                    @Override
-                    public int compare(Outfit o1, Outfit o2) {
-                        return getWeatherScore(o1.weather) - getWeatherScore(o2.weather);
-                    }
-                });
-                break;
-
-            case "style":
-            default:
-                // 按风格名称（或标题）排序
-                Collections.sort(list, new Comparator<Outfit>() {
-                    @Override
-                    public int compare(Outfit o1, Outfit o2) {
-                        String s1 = o1.style == null ? "" : o1.style;
-                        String s2 = o2.style == null ? "" : o2.style;
-                        return s1.compareTo(s2);
-                    }
-                });
-                break;
-        }
-    }
+    private void showSearchResult(SearchResult result) {
+        if (result == null || result.generation < shownSearchGeneration) return;
+        shownSearchGeneration = result.generation;
 
-    // 【新增】辅助方法：给季节赋予数字权重以便排序
-    private int getSeasonScore(String season) {
-        if (season == null) return 99;
-        if (season.contains("春")) return 1;
-        if (season.contains("夏")) return 2;
-        if (season.contains("秋")) return 3;
-        if (season.contains("冬")) return 4;
-        return 99; // 未知季节排最后
+        searching = !result.isEmptyQuery();
+        searchAdapter.submitList(searching ? result.outfits : null);
+        showCurrentAdapter();
     }
 
-    // 【新增】辅助方法：给天气赋予数字权重以便排序
-    private int getWeatherScore(String weather) {
-        if (weather == null) return 99;
-        if (weather.contains("晴")) return 1;
-        if (weather.contains("阴")) return 2;
-        if (weather.contains("雨")) return 3;
-        if (weather.contains("雪")) return 4;
-        return 99;
+    // 搜索结果优先；没有搜索时按排序模式展示今日推荐或分页列表
+    private void showCurrentAdapter() {
+        RecyclerView.Adapter<?> target = searching ? searchAdapter
+                : OutfitFilter.SORT_RECOMMEND.equals(currentSortMode) ? recommendAdapter : adapter;
+        if (recyclerView.getAdapter() != target) recyclerView.setAdapter(target);
     }
 
     /**
-     * 显示筛选对话框
+     * 显示筛选对话框：每个选项后面显示条数，没有结果的选项不显示
+     * 条数由 FacetCounter 在分组计数上汇总，切换选项时即时更新，不再查库
      */
     private void showFilterDialog() {
         LayoutInflater inf = LayoutInflater.from(requireContext());
         View dialogView = inf.inflate(R.layout.dialog_filter, null);
 
-        Spinner spGender = dialogView.findViewById(R.id.sp_gender);
-        Spinner spStyle = dialogView.findViewById(R.id.sp_style);
-        Spinner spSeason = dialogView.findViewById(R.id.sp_season);
-        Spinner spWeather = dialogView.findViewById(R.id.sp_weather);
-        Spinner spScene = dialogView.findViewById(R.id.sp_scene);
-
-        setupSpinner(spGender, new String[]{"all", "male", "female", "unisex"}, selGender);
-        setupSpinner(spStyle, new String[]{"", "甜美", "休闲", "职业", "运动"}, selStyle);
-        setupSpinner(spSeason, new String[]{"", "春", "夏", "秋", "冬"}, selSeason);
-        setupSpinner(spWeather, new String[]{"", "晴", "雨", "雪", "阴"}, selWeather);
-        setupSpinner(spScene, new String[]{"", "约会", "上学", "工作", "运动"}, selScene);
-
-        new AlertDialog.Builder(requireContext())
+        final Spinner[] spinners = {
+                dialogView.findViewById(R.id.sp_gender),
+                dialogView.findViewById(R.id.sp_style),
+                dialogView.findViewById(R.id.sp_season),
+                dialogView.findViewById(R.id.sp_weather),
+                dialogView.findViewById(R.id.sp_scene)
+        };
+        // 对话框里的临时选择，点"应用"才生效
+        final String[] selection = {selGender, selStyle, selSeason, selWeather, selScene};
+
+        AlertDialog dialog = new AlertDialog.Builder(requireContext())
                 .setTitle("筛选条件")
                 .setView(dialogView)
-                .setPositiveButton("应用", (dialog, which) -> {
-                    selGender = getSpinnerValue(spGender, "all");
-                    selStyle = getSpinnerValue(spStyle, "");
-                    selSeason = getSpinnerValue(spSeason, "");
-                    selWeather = getSpinnerValue(spWeather, "");
-                    selScene = getSpinnerValue(spScene, "");
+                .setPositiveButton("应用", (d, which) -> {
+                    selGender = selection[FacetCounter.GENDER];
+                    selStyle = selection[FacetCounter.STYLE];
+                    selSeason = selection[FacetCounter.SEASON];
+                    selWeather = selection[FacetCounter.WEATHER];
+                    selScene = selection[FacetCounter.SCENE];
                     applyFiltersAndShow();
                 })
                 .setNegativeButton("取消", null)
-                .show();
+                .create();
+
+        final Runnable[] refresh = new Runnable[1];
+        refresh[0] = () -> {
+            FacetCounter counter = viewModel.getFacetCounter().getValue();
+            int[][] counts = counter == null ? null : counter.count(selection, FACET_OPTIONS);
+            for (int f = 0; f < FacetCounter.FACETS; f++) {
+                final int facet = f;
+                setupFacetSpinner(spinners[f], FACET_OPTIONS[f], counts == null ? null : counts[f], selection[f],
+                        value -> {
+                            if (value.equals(selection[facet])) return;
+                            selection[facet] = value;
+                            refresh[0].run();
+                        });
+            }
+            if (counter != null && dialog.getButton(AlertDialog.BUTTON_POSITIVE) != null) {
+                dialog.getButton(AlertDialog.BUTTON_POSITIVE).setText("应用（" + counter.total(selection) + " 条）");
+            }
+        };
+        dialog.setOnShowListener(d -> refresh[0].run());
+        dialog.show();
     }
 
-    private void setupSpinner(Spinner spinner, String[] items, String currentValue) {
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(requireContext(),
-                android.R.layout.simple_spinner_item, items);
-        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-        spinner.setAdapter(adapter);
-        setSpinnerSelectionByValue(spinner, currentValue);
+    private interface OnFacetSelected {
+        void onSelected(String value);
     }
 
-    private String getSpinnerValue(Spinner spinner, String defaultValue) {
-        if (spinner.getSelectedItem() == null) return defaultValue;
-        return spinner.getSelectedItem().toString();
+    // 筛选项：value 是筛选值，显示的文字带条数
+    private static class FacetOption {
+        final String value;
+        final String label;
+
+        FacetOption(String value, int count) {
+            this.value = value;
+            String name = value.isEmpty() ? "不限" : value;
+            this.label = count < 0 ? name : name + " (" + count + ")";
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
     }
 
-    private void setSpinnerSelectionByValue(Spinner sp, String value) {
-        if (value == null) return;
-        ArrayAdapter adapter = (ArrayAdapter) sp.getAdapter();
-        if (adapter == null) return;
-        for (int i = 0; i < adapter.getCount(); i++) {
-            Object it = adapter.getItem(i);
-            if (it != null && value.equals(it.toString())) {
-                sp.setSelection(i);
-                return;
-            }
+    /**
+     * @param counts 每个候选项的条数，还没算出来时为 null（全部显示、不带条数）
+     */
+    private void setupFacetSpinner(Spinner spinner, String[] values, int[] counts, String currentValue,
+                                   OnFacetSelected listener) {
+        List<FacetOption> items = new ArrayList<>();
+        int selected = 0;
+        for (int i = 0; i < values.length; i++) {
+            boolean current = values[i].equals(currentValue);
+            // "不限" 和当前选中的项总是显示，其它没有结果的不显示
+            if (counts != null && i > 0 && counts[i] == 0 && !current) continue;
+            if (current) selected = items.size();
+            items.add(new FacetOption(values[i], counts == null ? -1 : counts[i]));
         }
+
+        ArrayAdapter<FacetOption> adapter = new ArrayAdapter<>(requireContext(),
+                android.R.layout.simple_spinner_item, items);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinner.setOnItemSelectedListener(null);
+        spinner.setAdapter(adapter);
+        spinner.setSelection(selected, false);
+        spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                listener.onSelected(items.get(position).value);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
     }
 
     // --------------------------------
     // Adapter
     // --------------------------------
-    public static class OutfitAdapter extends RecyclerView.Adapter<OutfitAdapter.VH> {
+    public static class OutfitAdapter extends ListAdapter<Outfit, OutfitAdapter.VH>
+            implements OutfitImages.Source {
 
         public interface OnItemClickListener {
             void onFavoriteClick(Outfit outfit);
@@ -354,18 +310,26 @@ public class OutfitsFragment extends Fragment {
         }
 
         private final Context ctx;
-        private final List<Outfit> list = new ArrayList<>();
         private final OnItemClickListener listener;
 
         public OutfitAdapter(Context ctx, OnItemClickListener listener) {
+            super(OutfitDiffCallback.CONFIG);
             this.ctx = ctx;
             this.listener = listener;
+            // 以 Outfit.id 作为稳定 id：列表更新时 RecyclerView 能复用对应的 ViewHolder
+            setHasStableIds(true);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return getItem(position).id;
         }
 
-        public void submitList(List<Outfit> newList) {
-            list.clear();
-            if (newList != null) list.addAll(newList);
-            notifyDataSetChanged();
+        @Nullable
+        @Override
+        public Outfit peekOutfit(int position) {
+            List<Outfit> list = getCurrentList();
+            return position >= 0 && position < list.size() ? list.get(position) : null;
         }
 
         @NonNull
@@ -377,26 +341,7 @@ public class OutfitsFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull VH holder, int position) {
-            Outfit o = list.get(position);
-            holder.title.setText(o.title == null ? "" : o.title);
-
-            Glide.with(ctx)
-                    .load(o.imagePath)
-                    .placeholder(android.R.drawable.ic_menu_gallery)
-                    .into(holder.img);
-
-            holder.btnFavorite.setOnClickListener(v -> {
-                if (listener != null) listener.onFavoriteClick(o);
-            });
-
-            holder.itemView.setOnClickListener(v -> {
-                if (listener != null) listener.onItemClick(o);
-            });
-        }
-
-        @Override
-        public int getItemCount() {
-            return list.size();
+            holder.bind(ctx, getItem(position), listener);
         }
 
         static class VH extends RecyclerView.ViewHolder {
@@ -404,12 +349,67 @@ public class OutfitsFragment extends Fragment {
             android.widget.TextView title;
             android.widget.ImageView btnFavorite;
 
+            final int thumbWidth;
+
             VH(@NonNull View v) {
                 super(v);
+                thumbWidth = OutfitImages.columnWidth(v.getContext());
                 img = v.findViewById(R.id.outfit_img);
                 title = v.findViewById(R.id.outfit_title);
                 btnFavorite = v.findViewById(R.id.iv_favorite);
             }
+
+            void bind(Context ctx, Outfit o, OnItemClickListener listener) {
+                title.setText(o.title == null ? "" : o.title);
+
+                // 按列宽解码缩略图（与预加载的请求一致，可直接命中缓存）
+                OutfitImages.thumbnail(Glide.with(ctx), o, thumbWidth).into(img);
+
+                btnFavorite.setOnClickListener(v -> {
+                    if (listener != null) listener.onFavoriteClick(o);
+                });
+
+                itemView.setOnClickListener(v -> {
+                    if (listener != null) listener.onItemClick(o);
+                });
+            }
+        }
+    }
+
+    // --------------------------------
+    // 分页 Adapter：只持有当前加载的几页数据，由 PagingDataAdapter 在后台做差分
+    // （PagingDataAdapter 不支持 stable ids，这里不开启）
+    // --------------------------------
+    public static class FeedAdapter extends PagingDataAdapter<Outfit, OutfitAdapter.VH>
+            implements OutfitImages.Source {
+
+        private final Context ctx;
+        private final OutfitAdapter.OnItemClickListener listener;
+
+        public FeedAdapter(Context ctx, OutfitAdapter.OnItemClickListener listener) {
+            super(OutfitDiffCallback.INSTANCE);
+            this.ctx = ctx;
+            this.listener = listener;
+        }
+
+        // peek 不会触发分页加载，预加载只用已加载的数据
+        @Nullable
+        @Override
+        public Outfit peekOutfit(int position) {
+            return position >= 0 && position < getItemCount() ? peek(position) : null;
+        }
+
+        @NonNull
+        @Override
+        public OutfitAdapter.VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View v = LayoutInflater.from(ctx).inflate(R.layout.item_outfit, parent, false);
+            return new OutfitAdapter.VH(v);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull OutfitAdapter.VH holder, int position) {
+            Outfit o = getItem(position);
+            if (o != null) holder.bind(ctx, o, listener);
         }
     }
 }
\ No newline at end of file
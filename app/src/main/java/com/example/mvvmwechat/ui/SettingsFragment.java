@@ -14,19 +14,17 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.mvvmwechat.AppExecutors;
 import com.example.mvvmwechat.R;
 import com.example.mvvmwechat.data.AppDatabase;
 import com.example.mvvmwechat.data.Setting;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 public class SettingsFragment extends Fragment {
     private RadioGroup rgGender;
     private RadioGroup rgSortMode; // 新增
     private Spinner spDefaultStyle;
     private Button btnSave;
-    private final ExecutorService ex = Executors.newSingleThreadExecutor();
+    private AppExecutors.Scope tasks;
 
     @Nullable
     @Override
@@ -41,6 +39,7 @@ public class SettingsFragment extends Fragment {
         rgSortMode = view.findViewById(R.id.rg_sort_mode); // 绑定ID
         spDefaultStyle = view.findViewById(R.id.sp_default_style);
         btnSave = view.findViewById(R.id.btn_save_settings);
+        tasks = AppExecutors.getInstance().scope(getViewLifecycleOwner());
 
         ArrayAdapter<String> styleAdapter = new ArrayAdapter<>(requireContext(),
                 android.R.layout.simple_spinner_item, new String[]{"甜美", "休闲", "职业", "运动"});
@@ -53,8 +52,8 @@ public class SettingsFragment extends Fragment {
     }
 
     private void loadSettings() {
-        ex.execute(() -> {
-            AppDatabase db = AppDatabase.getInstance(requireContext());
+        final AppDatabase db = AppDatabase.getInstance(requireContext());
+        tasks.execute(AppExecutors.getInstance().diskIO(), () -> {
             String gender = db.settingDao().get("gender");
             String defaultStyle = db.settingDao().get("default_style");
             // 读取排序模式，默认为 "style"
@@ -63,30 +62,29 @@ public class SettingsFragment extends Fragment {
 
             final String finalSortMode = sortMode;
 
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> {
-                    // 1. 恢复性别设置
-                    if ("male".equals(gender)) rgGender.check(R.id.rb_male);
-                    else if ("female".equals(gender)) rgGender.check(R.id.rb_female);
-                    else rgGender.check(R.id.rb_all);
-
-                    // 2. 恢复排序设置 (新增逻辑)
-                    if ("season".equals(finalSortMode)) rgSortMode.check(R.id.rb_sort_season);
-                    else if ("weather".equals(finalSortMode)) rgSortMode.check(R.id.rb_sort_weather);
-                    else rgSortMode.check(R.id.rb_sort_style);
-
-                    // 3. 恢复Spinner
-                    if (defaultStyle != null) {
-                        for (int i = 0; i < spDefaultStyle.getCount(); i++) {
-                            Object it = spDefaultStyle.getItemAtPosition(i);
-                            if (it != null && it.toString().equals(defaultStyle)) {
-                                spDefaultStyle.setSelection(i);
-                                break;
-                            }
+            tasks.post(() -> {
+                // 1. 恢复性别设置
+                if ("male".equals(gender)) rgGender.check(R.id.rb_male);
+                else if ("female".equals(gender)) rgGender.check(R.id.rb_female);
+                else rgGender.check(R.id.rb_all);
+
+                // 2. 恢复排序设置 (新增逻辑)
+                if ("season".equals(finalSortMode)) rgSortMode.check(R.id.rb_sort_season);
+                else if ("weather".equals(finalSortMode)) rgSortMode.check(R.id.rb_sort_weather);
+                else if ("recommend".equals(finalSortMode)) rgSortMode.check(R.id.rb_sort_recommend);
+                else rgSortMode.check(R.id.rb_sort_style);
+
+                // 3. 恢复Spinner
+                if (defaultStyle != null) {
+                    for (int i = 0; i < spDefaultStyle.getCount(); i++) {
+                        Object it = spDefaultStyle.getItemAtPosition(i);
+                        if (it != null && it.toString().equals(defaultStyle)) {
+                            spDefaultStyle.setSelection(i);
+                            break;
                         }
                     }
-                });
-            }
+                }
+            });
         });
     }
 
@@ -102,6 +100,7 @@ public class SettingsFragment extends Fragment {
         int checkedSort = rgSortMode.getCheckedRadioButtonId();
         if (checkedSort == R.id.rb_sort_season) sortMode = "season";
         else if (checkedSort == R.id.rb_sort_weather) sortMode = "weather";
+        else if (checkedSort == R.id.rb_sort_recommend) sortMode = "recommend";
 
         // 3. 获取风格
         String defaultStyle = spDefaultStyle.getSelectedItem() == null ? "" : spDefaultStyle.getSelectedItem().toString();
@@ -110,16 +109,17 @@ public class SettingsFragment extends Fragment {
         final String sm = sortMode;
         final String ds = defaultStyle;
 
-        ex.execute(() -> {
-            AppDatabase db = AppDatabase.getInstance(requireContext());
-            db.settingDao().put(new Setting("gender", g));
-            db.settingDao().put(new Setting("sort_mode", sm)); // 保存排序模式
-            db.settingDao().put(new Setting("default_style", ds));
-
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() ->
-                        Toast.makeText(requireContext(), "设置已保存", Toast.LENGTH_SHORT).show());
-            }
+        // 保存不绑定生命周期：离开页面也要写完，只有提示会被丢弃
+        final AppDatabase db = AppDatabase.getInstance(requireContext());
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            db.runInTransaction(() -> {
+                db.settingDao().put(new Setting("gender", g));
+                db.settingDao().put(new Setting("sort_mode", sm)); // 保存排序模式
+                db.settingDao().put(new Setting("default_style", ds));
+            });
+
+            tasks.post(() ->
+                    Toast.makeText(requireContext(), "设置已保存", Toast.LENGTH_SHORT).show());
         });
     }
 }
\ No newline at end of file
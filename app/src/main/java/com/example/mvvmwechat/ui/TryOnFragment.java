@@ -8,8 +8,6 @@ import android.graphics.Bitmap;
 import android.graphics.drawable.BitmapDrawable;
 import android.net.Uri;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.provider.MediaStore;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -26,13 +24,18 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.example.mvvmwechat.AppExecutors;
 import com.example.mvvmwechat.BuildConfig;
 import com.example.mvvmwechat.R;
 import com.example.mvvmwechat.data.Outfit;
+import com.example.mvvmwechat.repository.GarmentCache;
 import com.example.mvvmwechat.repository.OutfitRepository;
+import com.example.mvvmwechat.util.ImagePreparer;
 import com.example.mvvmwechat.viewmodel.TryOnViewModel;
 
 import java.io.File;
@@ -43,14 +46,11 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.net.URI;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
- * TryOnFragment - 使用方案1：对 URL 做正确编码并打印 DNS/地址信息；在 downloadToCache 中使用编码后的 URL
+ * TryOnFragment - 使用方案1：对 URL 做正确编码并打印 DNS/地址信息；衣服图通过 GarmentCache 按 URL 缓存
  */
 public class TryOnFragment extends Fragment {
 
@@ -63,13 +63,14 @@ public class TryOnFragment extends Fragment {
     private ProgressBar progress;
     private RecyclerView rvFavorites;
 
-    private File pickedFile;
+    // 处理后的用户图片（文件 + 类型）
+    private ImagePreparer.Result pickedImage;
     private Outfit selectedOutfit;
-    private final ExecutorService ex = Executors.newSingleThreadExecutor();
+    // 与 View 生命周期绑定：离开页面时取消下载、丢弃回调
+    private AppExecutors.Scope tasks;
 
     private TryOnViewModel vm;
     private OutfitRepository outfitRepository;
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     @Nullable
     @Override
@@ -87,9 +88,10 @@ public class TryOnFragment extends Fragment {
         rvFavorites = view.findViewById(R.id.rv_favorites);
         tvNoFavorites = view.findViewById(R.id.tv_no_favorites);
         progress = view.findViewById(R.id.pb_progress);
+        tasks = AppExecutors.getInstance().scope(getViewLifecycleOwner());
 
         vm = new ViewModelProvider(this).get(TryOnViewModel.class);
-        outfitRepository = new OutfitRepository(requireContext());
+        outfitRepository = OutfitRepository.getInstance(requireContext());
 
         // favorites 横向列表
         rvFavorites.setLayoutManager(new LinearLayoutManager(requireContext(), LinearLayoutManager.HORIZONTAL, false));
@@ -119,9 +121,16 @@ public class TryOnFragment extends Fragment {
             } else {
                 progress.setVisibility(View.GONE);
                 btnTryOn.setEnabled(true);
+                btnTryOn.setText("开始智能换装");
             }
         });
 
+        vm.getUploadProgress().observe(getViewLifecycleOwner(), p -> {
+            Boolean isLoading = vm.getLoading().getValue();
+            if (p == null || isLoading == null || !isLoading) return;
+            btnTryOn.setText(p.isDone() || p.percent() < 0 ? "等待生成..." : "上传中 " + p.percent() + "%");
+        });
+
         vm.getResultImageUrl().observe(getViewLifecycleOwner(), url -> {
             if (url != null && !url.isEmpty()) {
                 // url 可能是远程 https://... 或 本地 file://...
@@ -143,7 +152,7 @@ public class TryOnFragment extends Fragment {
 
         // 点击开始换装
         btnTryOn.setOnClickListener(v -> {
-            if (pickedFile == null) {
+            if (pickedImage == null) {
                 Toast.makeText(requireContext(), "请先选择用户图片", Toast.LENGTH_SHORT).show();
                 return;
             }
@@ -157,34 +166,16 @@ public class TryOnFragment extends Fragment {
             btnTryOn.setEnabled(false);
 
             // 在后台线程准备 outfit 文件（可能需要下载）
-            ex.execute(() -> {
+            final Context appContext = requireContext().getApplicationContext();
+            final Outfit outfit = selectedOutfit;
+            final ImagePreparer.Result user = pickedImage;
+            tasks.execute(AppExecutors.getInstance().network(), () -> {
                 try {
-                    // 打印原始与编码后的 URL，并尝试解析主机地址（便于诊断）
-                    String rawUrl = selectedOutfit.imagePath;
-                    Log.d(TAG, "rawUrl: " + rawUrl);
-                    String encoded = encodeUrl(rawUrl);
-                    Log.d(TAG, "encodedUrl: " + encoded);
-                    try {
-                        URL u = new URL(encoded);
-                        String host = u.getHost();
-                        Log.d(TAG, "host: " + host);
-                        try {
-                            InetAddress[] addrs = InetAddress.getAllByName(host);
-                            for (InetAddress a : addrs) {
-                                Log.d(TAG, "addr: " + a.getHostAddress());
-                            }
-                        } catch (Exception dnsEx) {
-                            Log.w(TAG, "DNS lookup failed for host: " + host, dnsEx);
-                        }
-                    } catch (Exception e) {
-                        Log.w(TAG, "invalid encoded URL for host resolution: " + encoded, e);
-                    }
-
-                    File outfitFile = prepareFileFromPath(requireContext(), selectedOutfit.imagePath);
+                    File outfitFile = prepareFileFromPath(appContext, outfit.imagePath);
                     if (outfitFile == null || !outfitFile.exists()) {
-                        // 回到主线程安全更新 UI（并检查 Fragment 是否 attach）
-                        mainHandler.post(() -> {
-                            if (!isAdded()) return;
+                        logHostDiagnostics(outfit.imagePath);
+                        // 回到主线程更新 UI（View 已销毁时不会执行）
+                        tasks.post(() -> {
                             progress.setVisibility(View.GONE);
                             btnTryOn.setEnabled(true);
                             Toast.makeText(getContext(), "无法准备所选穿搭图片（网络或路径问题）", Toast.LENGTH_LONG).show();
@@ -192,14 +183,18 @@ public class TryOnFragment extends Fragment {
                         return;
                     }
 
+                    // 衣服图同样缩到接口需要的尺寸再上传（下载的原图往往是大 PNG）
+                    ImagePreparer.Result garment = ImagePreparer.prepare(appContext, Uri.fromFile(outfitFile),
+                            ImagePreparer.Spec.tryOn(), new File(appContext.getCacheDir(), "outfit_upload_" + outfit.id));
+                    Log.d(TAG, "Outfit image prepared: " + garment);
+
                     // 成功准备好文件后调用 ViewModel（传入 BuildConfig.AI_KEY）
-                    vm.tryOn(pickedFile, outfitFile, BuildConfig.AI_KEY);
+                    vm.tryOn(user, garment, BuildConfig.AI_KEY);
 
                 } catch (Exception e) {
                     Log.e(TAG, "prepare outfit failed", e);
                     final String msg = e.getMessage() == null ? "准备图片失败" : e.getMessage();
-                    mainHandler.post(() -> {
-                        if (!isAdded()) return;
+                    tasks.post(() -> {
                         progress.setVisibility(View.GONE);
                         btnTryOn.setEnabled(true);
                         Toast.makeText(getContext(), "准备图片失败: " + msg, Toast.LENGTH_LONG).show();
@@ -209,64 +204,54 @@ public class TryOnFragment extends Fragment {
         });
     }
 
-    // 处理选图结果
+    // 处理选图结果：在 compute 线程缩图、转正、重新编码，主线程只显示处理后的小图
     @Override
     public void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
-        if (requestCode == REQ_PICK && resultCode == Activity.RESULT_OK && data != null) {
-            Uri uri = data.getData();
-            try {
-                Bitmap bmp = MediaStore.Images.Media.getBitmap(requireContext().getContentResolver(), uri);
-                ivUser.setImageBitmap(bmp);
-
-                // 改名后缀为 .jpg
-                File f = new File(requireContext().getCacheDir(), "picked_user.jpg");
-                try (FileOutputStream out = new FileOutputStream(f)) {
-                    // 【重点修改】把 PNG 改为 JPEG，质量设为 80
-                    // 这样几 MB 的图片会变成 几百 KB，瞬间传完
-                    bmp.compress(Bitmap.CompressFormat.JPEG, 80, out);
+        if (requestCode == REQ_PICK && resultCode == Activity.RESULT_OK && data != null && data.getData() != null) {
+            final Uri uri = data.getData();
+            final Context appContext = requireContext().getApplicationContext();
+            pickedImage = null;
+            tasks.execute(AppExecutors.getInstance().compute(), () -> {
+                try {
+                    ImagePreparer.Result r = ImagePreparer.prepare(appContext, uri, ImagePreparer.Spec.tryOn(),
+                            new File(appContext.getCacheDir(), "picked_user"));
+                    Log.d(TAG, "User image prepared: " + r);
+                    tasks.post(() -> {
+                        pickedImage = r;
+                        // 同名文件内容会变，跳过 Glide 的缓存
+                        Glide.with(this).load(r.file).skipMemoryCache(true)
+                                .diskCacheStrategy(DiskCacheStrategy.NONE).into(ivUser);
+                    });
+                } catch (Exception e) {
+                    Log.e(TAG, "select image failed", e);
+                    final String msg = e.getMessage();
+                    tasks.post(() -> Toast.makeText(requireContext(), "选图失败：" + msg, Toast.LENGTH_LONG).show());
                 }
-                pickedFile = f;
-
-                // 打印一下文件大小，确认是否变小了
-                Log.d(TAG, "User image size: " + (f.length() / 1024) + " KB");
-
-            } catch (Exception e) {
-                Log.e(TAG, "select image failed", e);
-                Toast.makeText(requireContext(), "选图失败：" + e.getMessage(), Toast.LENGTH_LONG).show();
-            }
+            });
         }
     }
 
-    /**
-     * 将原始 URL 编码为 ASCII-safe 的 URL（会把中文和特殊字符编码）
-     */
-    // helper: 将任意原始 URL 转为 ASCII-safe 的 URL 字符串
-    private String encodeUrl(String rawUrl) {
-        if (rawUrl == null) return null;
+    // 准备衣服图失败时打印原始与编码后的 URL，并尝试解析主机地址（便于诊断）；正常路径不做 DNS 查询
+    private void logHostDiagnostics(String rawUrl) {
+        Log.d(TAG, "rawUrl: " + rawUrl);
+        String encoded = rawUrl == null ? null : GarmentCache.normalizeUrl(rawUrl);
+        Log.d(TAG, "encodedUrl: " + encoded);
         try {
-            // 1. 先解码，把 %20 还原成空格，把 %E4 还原成中文等
-            String decoded = java.net.URLDecoder.decode(rawUrl, "UTF-8");
-
-            // 2. 再利用 URI 进行标准编码（自动处理空格、中文等）
-            java.net.URL u = new java.net.URL(decoded);
-            java.net.URI uri = new java.net.URI(
-                    u.getProtocol(),
-                    u.getUserInfo(),
-                    u.getHost(),
-                    u.getPort(),
-                    u.getPath(),
-                    u.getQuery(),
-                    null);
-            return uri.toASCIIString();
-        } catch (Exception e) {
-            // 如果解析失败，回退到简单的空格替换
-            Log.w(TAG, "encodeUrl failed, fallback to replace", e);
+            URL u = new URL(encoded);
+            String host = u.getHost();
+            Log.d(TAG, "host: " + host);
             try {
-                return rawUrl.replace(" ", "%20");
-            } catch (Exception ignored) {}
+                InetAddress[] addrs = InetAddress.getAllByName(host);
+                for (InetAddress a : addrs) {
+                    Log.d(TAG, "addr: " + a.getHostAddress());
+                }
+            } catch (Exception dnsEx) {
+                Log.w(TAG, "DNS lookup failed for host: " + host, dnsEx);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "invalid encoded URL for host resolution: " + encoded, e);
         }
-        return rawUrl;
     }
 
     /**
@@ -276,8 +261,9 @@ public class TryOnFragment extends Fragment {
     private File prepareFileFromPath(Context ctx, String path) {
         if (path == null) return null;
         try {
-            if (path.startsWith("http://") || path.startsWith("https://")) {
-                return downloadToCache(ctx, path);
+            if (GarmentCache.isRemote(path)) {
+                // 按 URL 缓存，选过/预取过的衣服不再走网络
+                return GarmentCache.getInstance(ctx).get(path);
             } else if (path.startsWith("file://")) {
                 Uri u = Uri.parse(path);
                 return new File(u.getPath());
@@ -295,7 +281,7 @@ public class TryOnFragment extends Fragment {
                 return copyUriToCache(ctx, u, "outfit_cache.png");
             } else {
                 if (path.startsWith("//") || path.contains("://")) {
-                    return downloadToCache(ctx, path);
+                    return GarmentCache.getInstance(ctx).get(path);
                 }
                 return resourceToCache(ctx, path, "outfit_cache.png");
             }
@@ -305,65 +291,6 @@ public class TryOnFragment extends Fragment {
         }
     }
 
-    // 更稳健的下载实现：对 URL 做编码并打印 DNS；使用 timeouts
-    private File downloadToCache(Context ctx, String rawUrl) {
-        // 【新增步骤 1】强行升级图片分辨率
-        // Pollinations 的 URL 通常包含 width=400&height=600
-        // 我们用正则将其替换为更大的数值 (768x1024)，以满足 tryon-api 要求的 512px 限制
-        String highResUrl = rawUrl;
-        if (rawUrl != null) {
-            highResUrl = rawUrl.replaceAll("width=\\d+", "width=768")
-                    .replaceAll("height=\\d+", "height=1024");
-            android.util.Log.d("TryOnFragment", "Upgrade resolution url: " + highResUrl);
-        }
-
-        // 【步骤 2】对升级后的 URL 进行编码
-        String url = encodeUrl(highResUrl);
-
-        // 构建 OkHttp，超时时间建议设置长一点
-        okhttp3.OkHttpClient client = new okhttp3.OkHttpClient.Builder()
-                .callTimeout(60, java.util.concurrent.TimeUnit.SECONDS)
-                .connectTimeout(30, java.util.concurrent.TimeUnit.SECONDS)
-                .readTimeout(60, java.util.concurrent.TimeUnit.SECONDS)
-                .build();
-
-        okhttp3.Request req;
-        try {
-            req = new okhttp3.Request.Builder().url(url).build();
-        } catch (IllegalArgumentException iae) {
-            android.util.Log.w("TryOnFragment", "Bad URL after encoding: " + url, iae);
-            return null;
-        }
-
-        try (okhttp3.Response resp = client.newCall(req).execute()) {
-            if (!resp.isSuccessful()) {
-                android.util.Log.w("TryOnFragment", "downloadToCache response not successful: " + resp.code() + " for url: " + url);
-                return null;
-            }
-            if (resp.body() == null) return null;
-
-            java.io.InputStream in = resp.body().byteStream();
-            // 保存为 png
-            File f = new File(ctx.getCacheDir(), "outfit_download.png");
-            try (java.io.OutputStream out = new java.io.FileOutputStream(f)) {
-                byte[] buf = new byte[8192];
-                int len;
-                while ((len = in.read(buf)) != -1) out.write(buf, 0, len);
-            }
-
-            android.util.Log.d("TryOnFragment", "Outfit downloaded size: " + (f.length() / 1024) + " KB");
-            return f;
-
-        } catch (java.net.UnknownHostException uhe) {
-            android.util.Log.w("TryOnFragment", "DNS lookup failed for url: " + url + " : " + uhe.getMessage());
-            return null;
-        } catch (Exception e) {
-            android.util.Log.e("TryOnFragment", "downloadToCache failed for url: " + url, e);
-            return null;
-        }
-    }
-
-
     // 把 content:// URI 拷贝到缓存
     private File copyUriToCache(Context ctx, Uri uri, String filename) {
         try (InputStream in = ctx.getContentResolver().openInputStream(uri)) {
@@ -436,26 +363,27 @@ public class TryOnFragment extends Fragment {
     // ----------------------------
     // FavoritesAdapter（横向）内部实现
     // ----------------------------
-    public static class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.VH> {
+    public static class FavoritesAdapter extends ListAdapter<Outfit, FavoritesAdapter.VH> {
 
         public interface OnSelectListener {
             void onSelect(Outfit outfit);
         }
 
         private final Context ctx;
-        private final List<Outfit> items = new ArrayList<>();
         private final OnSelectListener listener;
-        private int selectedPos = -1;
+        // 按 id 记录选中项，列表更新后位置变化也不会选错
+        private long selectedId = -1;
 
         public FavoritesAdapter(Context ctx, OnSelectListener listener) {
+            super(OutfitDiffCallback.CONFIG);
             this.ctx = ctx;
             this.listener = listener;
+            setHasStableIds(true);
         }
 
-        public void submitList(List<Outfit> list) {
-            items.clear();
-            if (list != null) items.addAll(list);
-            notifyDataSetChanged();
+        @Override
+        public long getItemId(int position) {
+            return getItem(position).id;
         }
 
         @NonNull
@@ -467,25 +395,34 @@ public class TryOnFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull VH holder, int position) {
-            Outfit o = items.get(position);
+            Outfit o = getItem(position);
             holder.title.setText(o.title == null ? "" : o.title);
-            Glide.with(ctx).load(o.imagePath).into(holder.image);
+            Glide.with(ctx).load(OutfitImages.thumbUrl(o)).into(holder.image);
+            // 出现在列表里的衣服提前下载高清原图，点换装时不用再等下载
+            GarmentCache.getInstance(ctx).prefetch(o.imagePath);
 
             holder.itemView.setOnClickListener(v -> {
-                int old = selectedPos;
-                selectedPos = position;
-                notifyItemChanged(old);
-                notifyItemChanged(selectedPos);
-                if (listener != null) listener.onSelect(o);
+                int pos = holder.getBindingAdapterPosition();
+                if (pos == RecyclerView.NO_POSITION) return;
+                Outfit clicked = getItem(pos);
+                int old = indexOf(selectedId);
+                selectedId = clicked.id;
+                if (old != RecyclerView.NO_POSITION) notifyItemChanged(old);
+                notifyItemChanged(pos);
+                if (listener != null) listener.onSelect(clicked);
             });
 
-            holder.itemView.setSelected(position == selectedPos);
-            holder.overlay.setVisibility(position == selectedPos ? View.VISIBLE : View.GONE);
+            boolean selected = o.id == selectedId;
+            holder.itemView.setSelected(selected);
+            holder.overlay.setVisibility(selected ? View.VISIBLE : View.GONE);
         }
 
-        @Override
-        public int getItemCount() {
-            return items.size();
+        private int indexOf(long id) {
+            List<Outfit> current = getCurrentList();
+            for (int i = 0; i < current.size(); i++) {
+                if (current.get(i).id == id) return i;
+            }
+            return RecyclerView.NO_POSITION;
         }
 
         static class VH extends RecyclerView.ViewHolder {
@@ -501,10 +438,4 @@ public class TryOnFragment extends Fragment {
             }
         }
     }
-
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-        ex.shutdownNow();
-    }
 }
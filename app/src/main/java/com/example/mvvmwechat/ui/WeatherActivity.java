@@ -14,23 +14,21 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
-import com.example.mvvmwechat.network.BackendApi;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LiveData;
 
+import com.example.mvvmwechat.AppExecutors;
 import com.example.mvvmwechat.R;
-
-import org.json.JSONObject;
+import com.example.mvvmwechat.repository.WeatherRepository;
+import com.example.mvvmwechat.repository.WeatherState;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
-import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class WeatherActivity extends AppCompatActivity {
 
@@ -43,12 +41,24 @@ public class WeatherActivity extends AppCompatActivity {
     private LocationManager locationManager;
     private String currentCity = "Beijing"; // 默认城市
 
-    private final ExecutorService ex = Executors.newSingleThreadExecutor();
+    // 与 Activity 生命周期绑定：退出页面时取消请求、丢弃回调
+    private AppExecutors.Scope tasks;
+
+    private WeatherRepository weatherRepo;
+    // 当前显示的城市/位置的天气
+    private LiveData<WeatherState> observed;
+    private boolean wasRefreshing;
+    // 上一次是按坐标还是按城市名查的，刷新按钮沿用
+    private boolean byCoords;
+    private double lastLat;
+    private double lastLon;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_weather);
+        tasks = AppExecutors.getInstance().scope(this);
+        weatherRepo = WeatherRepository.getInstance(this);
 
         tvCity = findViewById(R.id.tv_city);
         tvWeatherInfo = findViewById(R.id.tv_weather_info);
@@ -61,7 +71,14 @@ public class WeatherActivity extends AppCompatActivity {
 
         // 按钮事件
         btnSwitchCity.setOnClickListener(v -> showSwitchCityDialog());
-        btnRefresh.setOnClickListener(v -> fetchWeatherData(currentCity));
+        // 刷新：忽略缓存有效期，重新请求当前城市/位置
+        btnRefresh.setOnClickListener(v -> {
+            if (byCoords) {
+                fetchWeatherByCoords(lastLat, lastLon, true);
+            } else {
+                fetchWeatherData(currentCity, true);
+            }
+        });
     }
 
     /**
@@ -76,42 +93,43 @@ public class WeatherActivity extends AppCompatActivity {
             getLocation();
         }
     }
-    // --- 新增方法：根据经纬度获取天气 (最稳妥，不会404) ---
-    private void fetchWeatherByCoords(double lat, double lon) {
-        tvWeatherDesc.setText("正在更新...");
-        ex.execute(() -> {
-            try {
-                // ⚠️ 请确认你的 API Key 是有效的
-                String apiKey = "d75caa95c39a271f92ee599a050040f6";
-
-                // 使用 lat 和 lon 参数，而不是 q (城市名)
-                String url = "https://api.openweathermap.org/data/2.5/weather?lat=" + lat + "&lon=" + lon + "&lang=zh_cn&units=metric&appid=" + apiKey;
-
-                String jsonResult = BackendApi.syncGet(url);
+    // --- 根据经纬度获取天气 (最稳妥，不会404)，附近的位置共用一份缓存 ---
+    private void fetchWeatherByCoords(double lat, double lon, boolean force) {
+        byCoords = true;
+        lastLat = lat;
+        lastLon = lon;
+        show(weatherRepo.forLocation(lat, lon, force));
+    }
 
-                // 解析数据
-                JSONObject jsonObject = new JSONObject(jsonResult);
-                String description = jsonObject.getJSONArray("weather").getJSONObject(0).getString("description");
-                double tempDouble = jsonObject.getJSONObject("main").getDouble("temp");
-                String tempStr = (int)Math.round(tempDouble) + "°C";
-                String cityName = jsonObject.getString("name"); // API 会返回它识别到的城市名(通常是拼音)
+    /**
+     * 观察某个城市/位置的天气：先显示缓存，过期或 force 时后台刷新，刷新完自动更新界面
+     */
+    private void show(LiveData<WeatherState> state) {
+        if (observed != null) observed.removeObservers(this);
+        observed = state;
+        wasRefreshing = false;
+        state.observe(this, s -> {
+            if (s.weather != null) {
+                tvWeatherInfo.setText(s.weather.temperatureText());
+                tvWeatherDesc.setText(s.refreshing ? s.weather.description + "（更新中）" : s.weather.description);
+            } else if (s.refreshing) {
+                tvWeatherDesc.setText("正在更新天气...");
+            } else if (s.error != null) {
+                tvWeatherDesc.setText("获取失败");
+            }
 
-                runOnUiThread(() -> {
-                    tvCity.setText(cityName); // 更新为服务器返回的标准地名
-                    tvWeatherInfo.setText(tempStr);
-                    tvWeatherDesc.setText(description);
+            if (wasRefreshing && !s.refreshing) {
+                if (s.error != null) {
+                    // 如果是 401 说明 Key 没激活；如果是 404 说明城市名/位置查不到
+                    Toast.makeText(WeatherActivity.this, "错误：" + s.error, Toast.LENGTH_SHORT).show();
+                } else {
                     Toast.makeText(WeatherActivity.this, "更新成功", Toast.LENGTH_SHORT).show();
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-                runOnUiThread(() -> {
-                    tvWeatherDesc.setText("获取失败");
-                    // 如果是 401 说明 Key 没激活；如果是 404 说明位置太偏
-                    Toast.makeText(WeatherActivity.this, "错误: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+                }
             }
+            wasRefreshing = s.refreshing;
         });
     }
+
     private void getLocation() {
         try {
             locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
@@ -134,7 +152,7 @@ public class WeatherActivity extends AppCompatActivity {
                     tvCity.setText("北京 (默认)");
                     Toast.makeText(this, "未获取到位置，显示默认城市", Toast.LENGTH_SHORT).show();
                     // 使用拼音 Beijing 防止乱码
-                    fetchWeatherData("Beijing");
+                    fetchWeatherData("Beijing", false);
                 });
             }
 
@@ -146,7 +164,7 @@ public class WeatherActivity extends AppCompatActivity {
     // 根据经纬度获取城市名 (反地理编码)
     // 修改后的 updateCityFromLocation
     private void updateCityFromLocation(Location location) {
-        ex.execute(() -> {
+        tasks.execute(AppExecutors.getInstance().network(), () -> {
             Geocoder geocoder = new Geocoder(WeatherActivity.this, Locale.getDefault());
             try {
                 List<Address> addresses = geocoder.getFromLocation(location.getLatitude(), location.getLongitude(), 1);
@@ -159,9 +177,9 @@ public class WeatherActivity extends AppCompatActivity {
                     double lat = location.getLatitude();
                     double lon = location.getLongitude();
 
-                    runOnUiThread(() -> {
+                    tasks.post(() -> {
                         tvCity.setText(finalCity); // 界面显示中文名(给用户看)
-                        fetchWeatherByCoords(lat, lon); // 后台用经纬度查天气(给API看)
+                        fetchWeatherByCoords(lat, lon, false); // 后台用经纬度查天气(给API看)
                     });
                 }
             } catch (IOException e) {
@@ -187,7 +205,7 @@ public class WeatherActivity extends AppCompatActivity {
             if (!newCity.isEmpty()) {
                 currentCity = newCity;
                 tvCity.setText(currentCity);
-                fetchWeatherData(currentCity);
+                fetchWeatherData(currentCity, false);
             }
         });
         builder.setNegativeButton("取消", (dialog, which) -> dialog.cancel());
@@ -196,56 +214,11 @@ public class WeatherActivity extends AppCompatActivity {
     }
 
     /**
-     * 3. 获取天气数据
-     * 注意：真实的 App 需要申请 API Key (如和风天气、OpenWeather)。
-     * 这里为了演示代码逻辑，使用了模拟数据。如果需要真实数据，请看注释部分。
+     * 3. 按城市名获取天气（OpenWeatherMap，结果缓存在 Room 里，TTL 内不重复请求）
      */
-    private void fetchWeatherData(String cityName) {
-        tvWeatherDesc.setText("正在更新天气...");
-
-        ex.execute(() -> {
-            try {
-                // 1. 准备真实的 URL 和 Key
-                // ⚠️请将 YOUR_API_KEY 替换为你自己申请的 Key
-                String apiKey = "d75caa95c39a271f92ee599a050040f6";
-
-                // 组装 URL：地址 + 城市 + 语言(中文) + 单位(公制/摄氏度) + Key
-                String url = "https://api.openweathermap.org/data/2.5/weather?q=" + cityName + "&lang=zh_cn&units=metric&appid=" + apiKey;
-
-                // 2. 发起网络请求 (使用你现有的 BackendApi 工具)
-                String jsonResult = BackendApi.syncGet(url);
-
-                // 3. 解析返回的 JSON 数据
-                // OpenWeatherMap 返回的数据结构大概是：
-                // { "weather": [{"description": "晴"}], "main": {"temp": 25.5}, ... }
-                JSONObject jsonObject = new JSONObject(jsonResult);
-
-                // 获取天气描述 (例如：多云)
-                String description = jsonObject.getJSONArray("weather")
-                        .getJSONObject(0)
-                        .getString("description");
-
-                // 获取温度 (例如：25)
-                double tempDouble = jsonObject.getJSONObject("main").getDouble("temp");
-                String tempStr = (int)Math.round(tempDouble) + "°C";
-
-                // 4. 更新 UI
-                runOnUiThread(() -> {
-                    tvWeatherInfo.setText(tempStr);
-                    tvWeatherDesc.setText(description);
-                    // 城市名有时候 API 返回的更标准，也可以更新一下
-                    // tvCity.setText(jsonObject.getString("name"));
-                    Toast.makeText(WeatherActivity.this, "更新成功", Toast.LENGTH_SHORT).show();
-                });
-
-            } catch (Exception e) {
-                e.printStackTrace();
-                runOnUiThread(() -> {
-                    tvWeatherDesc.setText("获取失败");
-                    Toast.makeText(WeatherActivity.this, "错误：" + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
-            }
-        });
+    private void fetchWeatherData(String cityName, boolean force) {
+        byCoords = false;
+        show(weatherRepo.forCity(cityName, force));
     }
 
     @Override
@@ -0,0 +1,257 @@
+package com.example.mvvmwechat.util;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.net.Uri;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.exifinterface.media.ExifInterface;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * ImagePreparer - 上传前的图片预处理：缩到目标分辨率、按 EXIF 转正、重新编码
+ *
+ * - 先只解码尺寸，再用 inSampleSize 按 2 的幂缩小解码，不会把几千万像素的原图读进内存
+ * - 缩放/旋转一次画到目标尺寸的 Bitmap 上；用到的 Bitmap 都从 Glide 的 BitmapPool 取、用完放回
+ * - 耗时较长，必须在后台线程（AppExecutors.compute()）调用
+ */
+public final class ImagePreparer {
+    private static final String TAG = "ImagePreparer";
+
+    public enum Format {
+        JPEG("image/jpeg", ".jpg"),
+        WEBP("image/webp", ".webp");
+
+        public final String mimeType;
+        public final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * 输出规格：长边不超过 maxSide，短边不小于 minSide（原图更小时不放大）
+     */
+    public static class Spec {
+        public int maxSide = 1024;
+        public int minSide = 512;
+        public Format format = Format.JPEG;
+        public int quality = 85;
+
+        // 换装接口的默认规格（要求至少 512px，1024px 以上对效果没有帮助）
+        public static Spec tryOn() {
+            return new Spec();
+        }
+    }
+
+    /**
+     * 处理结果和指标
+     */
+    public static class Result {
+        public File file;
+        public String mimeType;
+        public int sourceWidth;
+        public int sourceHeight;
+        public int width;
+        public int height;
+        public int sampleSize;
+        public long sourceBytes;
+        public long bytes;
+        public long millis;
+
+        @Override
+        public String toString() {
+            return sourceWidth + "x" + sourceHeight + " (" + (sourceBytes / 1024) + " KB) -> "
+                    + width + "x" + height + " (" + (bytes / 1024) + " KB), sample=" + sampleSize
+                    + ", " + millis + " ms";
+        }
+    }
+
+    private ImagePreparer() {}
+
+    /**
+     * 把 uri 指向的图片处理后写入 dst（扩展名按输出格式替换）
+     */
+    public static Result prepare(Context ctx, Uri uri, Spec spec, File dst) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        ContentResolver cr = ctx.getContentResolver();
+        BitmapPool pool = Glide.get(ctx).getBitmapPool();
+        Result r = new Result();
+        r.sourceBytes = sizeOf(ctx, uri);
+
+        // 1. 只解码尺寸
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(cr, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("无法识别的图片: " + uri);
+        }
+        r.sourceWidth = bounds.outWidth;
+        r.sourceHeight = bounds.outHeight;
+
+        // 2. 按目标尺寸降采样解码，尽量复用池里的 Bitmap
+        int rotation = readRotation(cr, uri);
+        float scale = targetScale(bounds.outWidth, bounds.outHeight, spec);
+        int sample = sampleSize(scale);
+        r.sampleSize = sample;
+
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inSampleSize = sample;
+        opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        opts.inMutable = true;
+        opts.inBitmap = pool.getDirty(ceilDiv(bounds.outWidth, sample), ceilDiv(bounds.outHeight, sample),
+                Bitmap.Config.ARGB_8888);
+        Bitmap decoded;
+        try (InputStream in = open(cr, uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, opts);
+        } catch (IllegalArgumentException e) {
+            // 极少数格式不支持复用，退回普通解码
+            pool.put(opts.inBitmap);
+            opts.inBitmap = null;
+            try (InputStream in = open(cr, uri)) {
+                decoded = BitmapFactory.decodeStream(in, null, opts);
+            }
+        }
+        if (decoded == null) {
+            if (opts.inBitmap != null) pool.put(opts.inBitmap);
+            throw new IOException("解码失败: " + uri);
+        }
+
+        // 3. 缩放 + 旋转到最终尺寸
+        // JPEG 没有透明通道，带透明背景的图（如 PNG 衣服图）先铺白底，否则透明处会变黑
+        boolean flatten = spec.format == Format.JPEG && decoded.hasAlpha();
+        Bitmap out = transform(pool, decoded, scale * sample, rotation, flatten);
+        if (out != decoded) pool.put(decoded);
+        r.width = out.getWidth();
+        r.height = out.getHeight();
+
+        // 4. 重新编码
+        File target = withExtension(dst, spec.format.extension);
+        try (OutputStream os = new FileOutputStream(target)) {
+            if (!out.compress(compressFormat(spec.format), spec.quality, os)) {
+                throw new IOException("编码失败: " + target);
+            }
+        } finally {
+            pool.put(out);
+        }
+
+        r.file = target;
+        r.mimeType = spec.format.mimeType;
+        r.bytes = target.length();
+        r.millis = SystemClock.elapsedRealtime() - start;
+        Log.d(TAG, "prepared " + r);
+        return r;
+    }
+
+    // 最终相对原图的缩放比例（<= 1）
+    static float targetScale(int w, int h, Spec spec) {
+        int longSide = Math.max(w, h);
+        int shortSide = Math.min(w, h);
+        float scale = Math.min(1f, spec.maxSide / (float) longSide);
+        // 长宽比极端时优先保证短边不低于 minSide
+        if (shortSide * scale < spec.minSide) {
+            scale = Math.min(1f, spec.minSide / (float) shortSide);
+        }
+        return scale;
+    }
+
+    // 不超过目标比例的最大 2 的幂，解码结果不会小于目标尺寸
+    static int sampleSize(float scale) {
+        int sample = 1;
+        while (scale * sample * 2 <= 1f) sample *= 2;
+        return sample;
+    }
+
+    private static Bitmap transform(BitmapPool pool, Bitmap src, float scale, int rotation, boolean flatten) {
+        if (rotation == 0 && scale > 0.99f && !flatten) return src;
+
+        int w = Math.max(1, Math.round(src.getWidth() * scale));
+        int h = Math.max(1, Math.round(src.getHeight() * scale));
+        boolean swap = rotation == 90 || rotation == 270;
+        Bitmap dst = pool.getDirty(swap ? h : w, swap ? w : h, Bitmap.Config.ARGB_8888);
+
+        Matrix m = new Matrix();
+        m.postScale(w / (float) src.getWidth(), h / (float) src.getHeight());
+        m.postRotate(rotation);
+        // 旋转后平移回可见区域
+        switch (rotation) {
+            case 90:  m.postTranslate(h, 0); break;
+            case 180: m.postTranslate(w, h); break;
+            case 270: m.postTranslate(0, w); break;
+            default: break;
+        }
+        Canvas canvas = new Canvas(dst);
+        // 池里取出的 Bitmap 内容是脏的，先整个填满
+        canvas.drawColor(flatten ? Color.WHITE : Color.TRANSPARENT, PorterDuff.Mode.SRC);
+        canvas.drawBitmap(src, m, new Paint(Paint.FILTER_BITMAP_FLAG));
+        canvas.setBitmap(null);
+        return dst;
+    }
+
+    private static int readRotation(ContentResolver cr, Uri uri) {
+        try (InputStream in = open(cr, uri)) {
+            return new ExifInterface(in).getRotationDegrees();
+        } catch (IOException e) {
+            // 没有 EXIF（如 PNG）按不旋转处理
+            return 0;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat compressFormat(Format format) {
+        if (format == Format.WEBP) {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                    ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+        }
+        return Bitmap.CompressFormat.JPEG;
+    }
+
+    private static InputStream open(ContentResolver cr, Uri uri) throws IOException {
+        InputStream in = cr.openInputStream(uri);
+        if (in == null) throw new IOException("无法打开: " + uri);
+        return in;
+    }
+
+    private static long sizeOf(Context ctx, Uri uri) {
+        if ("file".equals(uri.getScheme()) && uri.getPath() != null) {
+            return new File(uri.getPath()).length();
+        }
+        try (android.content.res.AssetFileDescriptor fd = ctx.getContentResolver().openAssetFileDescriptor(uri, "r")) {
+            return fd == null ? -1 : fd.getLength();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static File withExtension(File f, String ext) {
+        String name = f.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return new File(f.getParentFile(), base + ext);
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
@@ -1,83 +1,225 @@
 package com.example.mvvmwechat.viewmodel;
 
 import android.app.Application;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
+import com.example.mvvmwechat.AppExecutors;
+import com.example.mvvmwechat.core.FacetCounter;
+import com.example.mvvmwechat.core.OutfitRanker;
 import com.example.mvvmwechat.data.Outfit;
+import com.example.mvvmwechat.data.OutfitFilter;
+import com.example.mvvmwechat.data.WeatherCache;
 import com.example.mvvmwechat.repository.OutfitRepository;
+import com.example.mvvmwechat.repository.SyncState;
+import com.example.mvvmwechat.repository.WeatherRepository;
 
+import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * OutfitViewModel - 保持兼容你的现有接口，同时增加 loading/error LiveData
  *
  * 主要职责：
- *  - 暴露本地 outfits 的 LiveData (allOutfits)
- *  - 在构造时触发 repo.refreshFromNetwork()（保持原有行为）
- *  - 暴露 search/addFavorite/refresh/getGenderSetting 等方法（与原来一致）
+ *  - 暴露按筛选条件分页的穿搭流 (feed)，首次加载/滑到末尾时由 RemoteMediator 向后端拉取
+ *  - 搜索流：search() 防抖 + 取消过期查询，结果通过 getSearchResults() 发出
+ *  - 今日推荐：按天气/季节/设置/收藏打分的前 RECOMMEND_LIMIT 条，通过 getRecommendations() 发出
+ *  - 暴露 addFavorite/refresh/getGenderSetting 等方法（与原来一致）
  *  - 提供 loading/error 以便 UI 能显示加载与错误状态
  */
 public class OutfitViewModel extends AndroidViewModel {
     private static final String TAG = "OutfitViewModel";
+    // 搜索框防抖时间
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+    // 今日推荐展示的条数
+    private static final int RECOMMEND_LIMIT = 100;
 
     private final OutfitRepository repo;
 
-    // 缓存 LiveData，防止 View 每次调用 loadAll 都重新创建新的实例
-    private final LiveData<List<Outfit>> allOutfits;
+    // 当前筛选条件；条件变化时换一个新的 Pager
+    private final MutableLiveData<OutfitFilter> filter = new MutableLiveData<>();
+    // cachedIn(this)：屏幕旋转等重建 View 时复用已加载的分页，不重新查询
+    private final LiveData<PagingData<Outfit>> feed;
 
-    // 状态 LiveData（可被 Fragment 观察）
-    private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
-    private final MutableLiveData<String> error = new MutableLiveData<>(null);
+    // 搜索流：防抖 + generation 标记，保证只发出最新一次查询的结果
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService searchExecutor = AppExecutors.getInstance().diskIO();
+    private final AtomicLong searchGeneration = new AtomicLong();
+    private final MutableLiveData<SearchResult> searchResults = new MutableLiveData<>();
+    private final Runnable pendingSearch = this::runSearch;
+    private String searchQuery = "";
+    private Future<?> searchTask;
 
-    // 直接使用 Repository 暴露的性别设置 LiveData（如果 repo 提供）
+    // 今日推荐：筛选条件、设置、天气、收藏或目录变化时重新打分（同样用 generation 丢弃过期结果）
+    private final MediatorLiveData<List<Outfit>> recommendations = new MediatorLiveData<>();
+    private final AtomicLong recommendGeneration = new AtomicLong();
+    private Future<?> recommendTask;
+    private final LiveData<String> defaultStyleSetting;
+    private final LiveData<WeatherCache> currentWeather;
+
+    // 状态 LiveData（可被 Fragment 观察），来自 Repository 的同步状态
+    private final LiveData<Boolean> loading;
+    private final LiveData<String> error;
+
+    // 设置项（Room 可观察查询，设置页修改后自动更新）
     private final LiveData<String> genderSetting;
+    private final LiveData<String> sortModeSetting;
 
     public OutfitViewModel(@NonNull Application application) {
         super(application);
-        repo = new OutfitRepository(application.getApplicationContext());
-
-        // 1. 观察本地数据库
-        allOutfits = repo.loadAllLocal();
-
-        // 2. 读取性别设置（如果 repo 没有实现该方法，这里会编译报错，请实现 repo.getGenderSetting()）
-        LiveData<String> gs;
-        try {
-            gs = repo.getGenderSetting();
-        } catch (Exception e) {
-            Log.w(TAG, "repo.getGenderSetting() not available or failed; returning empty LiveData", e);
-            gs = new MutableLiveData<>((String) null);
+        repo = OutfitRepository.getInstance(application);
+
+        // 1. 分页观察本地数据库
+        feed = PagingLiveData.cachedIn(
+                Transformations.switchMap(filter, f -> PagingLiveData.getLiveData(repo.pager(f))), this);
+
+        // 2. 观察设置：性别 + 默认排序方式，只有值真正变化时才会发出
+        genderSetting = repo.getGenderSetting();
+        sortModeSetting = repo.getSetting("sort_mode", OutfitFilter.SORT_STYLE);
+
+        // 3. 网络同步由分页的 RemoteMediator 在 feed 被观察时触发（没同步过拉第一页，否则增量同步），
+        //    用户点刷新时走 refresh()；同步在 Repository 中单飞，多个 ViewModel 共享同一份同步状态
+        LiveData<SyncState> sync = repo.getSyncState();
+        loading = Transformations.distinctUntilChanged(Transformations.map(sync, SyncState::isRunning));
+        error = Transformations.distinctUntilChanged(Transformations.map(sync,
+                s -> s.status == SyncState.ERROR ? s.error : null));
+
+        // 4. 今日推荐的输入：只在推荐模式下才真正计算
+        defaultStyleSetting = repo.getSetting("default_style", "");
+        currentWeather = WeatherRepository.getInstance(application).getCurrentWeather();
+        recommendations.addSource(filter, f -> scheduleRecommend());
+        recommendations.addSource(defaultStyleSetting, s -> scheduleRecommend());
+        recommendations.addSource(currentWeather, w -> scheduleRecommend());
+        recommendations.addSource(repo.getFavorites(), favs -> scheduleRecommend());
+        recommendations.addSource(Transformations.distinctUntilChanged(
+                Transformations.map(sync, s -> s.lastSuccessAt)), t -> scheduleRecommend());
+    }
+
+    /**
+     * 设置筛选 + 排序条件；与当前条件相同时不会重新分页
+     * 正在搜索时会用新条件立即重新搜索
+     */
+    public void setFilter(OutfitFilter newFilter) {
+        if (newFilter != null && !newFilter.equals(filter.getValue())) {
+            filter.setValue(newFilter);
+            if (!searchQuery.isEmpty()) {
+                mainHandler.removeCallbacks(pendingSearch);
+                runSearch();
+            }
         }
-        genderSetting = gs;
-
-        // 3. ⚠️ 关键修改：初始化时立即触发网络请求（保持你写过的行为）
-        //    我们不会在这里设置 loading=true/false，因为 repo.refreshFromNetwork() 的实现可能是异步且没有回调。
-        //    如果你希望 loading 能准确反映网络刷新状态，请让 repo.refreshFromNetwork() 提供回调或返回 LiveData，
-        //    然后在这里绑定回调/观察以更新 loading/error。
-        try {
-            repo.refreshFromNetwork();
-        } catch (Exception e) {
-            Log.e(TAG, "refreshFromNetwork failed on init", e);
-            error.postValue(e.getMessage());
+    }
+
+    /**
+     * 按当前筛选条件分页的穿搭流（筛选和排序都在 SQLite 中完成，内存中只保留几页）
+     */
+    public LiveData<PagingData<Outfit>> getFeed() {
+        return feed;
+    }
+
+    /**
+     * 搜索框输入：防抖 SEARCH_DEBOUNCE_MS 后才真正查询，连续输入只会查最后一次
+     * 结果通过 getSearchResults() 发出；关键字为空时立即发出空结果，UI 回到普通列表
+     * 必须在主线程调用
+     */
+    public void search(String keyword) {
+        final String query = keyword == null ? "" : keyword.trim();
+        if (query.equals(searchQuery)) return;
+        searchQuery = query;
+
+        mainHandler.removeCallbacks(pendingSearch);
+        if (query.isEmpty()) {
+            runSearch();
+        } else {
+            mainHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
         }
     }
 
     /**
-     * 返回本地 outfits 的 LiveData（Room 数据库变化时会自动通知）
+     * 搜索结果流：每个结果带有 generation，过期的查询结果不会被发出
      */
-    public LiveData<List<Outfit>> loadAll() {
-        return allOutfits;
+    public LiveData<SearchResult> getSearchResults() {
+        return searchResults;
+    }
+
+    // 在主线程执行：作废旧查询，在后台线程执行新查询
+    private void runSearch() {
+        final long generation = searchGeneration.incrementAndGet();
+        final String query = searchQuery;
+        // 还没开始执行的旧查询直接取消；已经在执行的，结果会因为 generation 过期而被丢弃
+        if (searchTask != null) searchTask.cancel(false);
+
+        if (query.isEmpty()) {
+            searchTask = null;
+            searchResults.setValue(new SearchResult(generation, query, null));
+            return;
+        }
+
+        OutfitFilter base = filter.getValue() != null ? filter.getValue()
+                : new OutfitFilter("all", "", "", "", "", "", OutfitFilter.SORT_STYLE);
+        final OutfitFilter searchFilter = base.withKeyword(query);
+        searchTask = searchExecutor.submit(() -> {
+            if (generation != searchGeneration.get()) return;
+            List<Outfit> list = repo.searchRanked(searchFilter);
+            // 只发出最新一次查询的结果
+            if (generation == searchGeneration.get()) {
+                searchResults.postValue(new SearchResult(generation, query, list));
+            }
+        });
+    }
+
+    /**
+     * 筛选对话框的选项计数（目录变化时自动更新）
+     */
+    public LiveData<FacetCounter> getFacetCounter() {
+        return repo.getFacetCounter();
     }
 
     /**
-     * 搜索（如果 repo.search 已实现）
+     * 今日推荐列表（排序模式为 OutfitFilter.SORT_RECOMMEND 时才会更新）
      */
-    public LiveData<List<Outfit>> search(String keyword) {
-        return repo.search(keyword);
+    public LiveData<List<Outfit>> getRecommendations() {
+        return recommendations;
+    }
+
+    // 在主线程执行：收集当前的设置和天气，在后台线程打分
+    private void scheduleRecommend() {
+        OutfitFilter f = filter.getValue();
+        if (f == null || !OutfitFilter.SORT_RECOMMEND.equals(f.sortMode)) return;
+
+        OutfitRanker.Request req = new OutfitRanker.Request();
+        req.gender = f.gender;
+        req.style = f.style;
+        req.season = f.season;
+        req.weather = f.weather;
+        req.scene = f.scene;
+        req.defaultStyle = defaultStyleSetting.getValue();
+        WeatherCache w = currentWeather.getValue();
+        if (w != null) {
+            req.weatherTag = w.tag;
+            req.temperature = w.temperature;
+        }
+        req.month = Calendar.getInstance().get(Calendar.MONTH) + 1;
+        req.limit = RECOMMEND_LIMIT;
+
+        final long generation = recommendGeneration.incrementAndGet();
+        if (recommendTask != null) recommendTask.cancel(false);
+        recommendTask = searchExecutor.submit(() -> {
+            if (generation != recommendGeneration.get()) return;
+            List<Outfit> list = repo.recommend(req);
+            if (generation == recommendGeneration.get()) recommendations.postValue(list);
+        });
     }
 
     /**
@@ -88,20 +230,11 @@ public class OutfitViewModel extends AndroidViewModel {
     }
 
     /**
-     * 手动触发刷新：会调用 repo.refreshFromNetwork()
-     * 如果你希望 UI 能显示刷新过程，请在 Repository 中增加回调或 LiveData 支持，然后在这里更新 loading/error。
+     * 用户手动刷新：不管刚才是否同步过都重新请求一次，已有同步在进行时加入那一次
+     * 进度和结果通过 getLoading()/getError() 观察
      */
     public void refresh() {
-        try {
-            // 如果需要在 UI 上显示 loading，可以在调用前设置：
-            // loading.postValue(true);
-            repo.refreshFromNetwork();
-            // 当有真正的回调/结果时再设置 loading=false / error
-        } catch (Exception e) {
-            Log.e(TAG, "refresh failed", e);
-            error.postValue(e.getMessage());
-            // loading.postValue(false);
-        }
+        repo.refreshFromNetwork(true);
     }
 
     /**
@@ -123,16 +256,20 @@ public class OutfitViewModel extends AndroidViewModel {
     }
 
     /**
-     * 可选扩展：
-     * 如果你在 OutfitRepository 中添加了 refreshFromNetwork(Callback) 或返回 LiveData<Boolean> 的方法，
-     * 可在这里把 loading/error 绑定到 Repository 的回调上，使 UI 能够实时反映刷新进度。
-     *
-     * 例如（伪代码）：
-     *
-     * repo.refreshFromNetwork(new Repo.Callback() {
-     *     onStart() { loading.postValue(true); }
-     *     onSuccess() { loading.postValue(false); error.postValue(null); }
-     *     onError(msg) { loading.postValue(false); error.postValue(msg); }
-     * });
+     * 返回默认排序方式设置 LiveData（由 repo 提供）
      */
+    public LiveData<String> getSortModeSetting() {
+        return sortModeSetting;
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mainHandler.removeCallbacks(pendingSearch);
+        // 共享线程池不能 shutdown，只取消自己的查询
+        searchGeneration.incrementAndGet();
+        if (searchTask != null) searchTask.cancel(false);
+        recommendGeneration.incrementAndGet();
+        if (recommendTask != null) recommendTask.cancel(false);
+    }
 }
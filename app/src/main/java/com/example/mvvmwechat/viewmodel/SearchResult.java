@@ -0,0 +1,30 @@
+package com.example.mvvmwechat.viewmodel;
+
+import com.example.mvvmwechat.data.Outfit;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SearchResult - 搜索流中的一次结果
+ *
+ * generation 每次发起新查询都会递增，UI 可以据此丢弃过期的结果
+ */
+public class SearchResult {
+    public final long generation;
+    public final String query;
+    public final List<Outfit> outfits;
+
+    public SearchResult(long generation, String query, List<Outfit> outfits) {
+        this.generation = generation;
+        this.query = query == null ? "" : query;
+        this.outfits = outfits == null ? Collections.emptyList() : outfits;
+    }
+
+    /**
+     * 关键字为空表示没有在搜索，UI 应该回到普通列表
+     */
+    public boolean isEmptyQuery() {
+        return query.isEmpty();
+    }
+}
@@ -3,24 +3,55 @@ package com.example.mvvmwechat.viewmodel;
 import android.app.Application;
 
 import androidx.annotation.NonNull;
+import androidx.core.util.Pair;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.Transformations;
 
+import com.example.mvvmwechat.AppExecutors;
+import com.example.mvvmwechat.data.TryOnJob;
 import com.example.mvvmwechat.network.AiApi;
-
-import java.io.File;
+import com.example.mvvmwechat.network.UploadProgress;
+import com.example.mvvmwechat.repository.TryOnRepository;
+import com.example.mvvmwechat.util.ImagePreparer;
 
 /**
- * TryOnViewModel - 负责调用 AiApi 并把结果暴露为 LiveData
+ * TryOnViewModel - 把换装任务交给 TryOnRepository，并把任务状态暴露为 LiveData
+ *
+ * 任务保存在 Room 中，由 Repository 提交和轮询；ViewModel 销毁时只停止观察，
+ * 远程任务会继续执行，结果写回数据库，下次相同输入直接复用
  */
 public class TryOnViewModel extends AndroidViewModel {
-    private final MutableLiveData<String> resultImageUrl = new MutableLiveData<>();
-    private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
-    private final MutableLiveData<String> error = new MutableLiveData<>();
+    private final TryOnRepository repo;
+
+    // 当前观察的任务
+    private final MediatorLiveData<TryOnJob> job = new MediatorLiveData<>();
+    private LiveData<TryOnJob> jobSource;
+
+    private final LiveData<String> resultImageUrl;
+    private final LiveData<Boolean> loading;
+    private final MediatorLiveData<String> error = new MediatorLiveData<>();
+    private final LiveData<UploadProgress> uploadProgress;
 
     public TryOnViewModel(@NonNull Application application) {
         super(application);
+        repo = TryOnRepository.getInstance(application);
+
+        // 任务行每次变化 Room 都会重新发出，用 distinctUntilChanged 避免重复刷新/提示
+        resultImageUrl = Transformations.distinctUntilChanged(Transformations.map(job, j ->
+                j != null && TryOnJob.STATUS_COMPLETED.equals(j.status) ? j.resultUrl : null));
+        loading = Transformations.distinctUntilChanged(Transformations.map(job, j ->
+                j != null && !j.isFinished()));
+        error.addSource(Transformations.distinctUntilChanged(Transformations.map(job, j ->
+                j != null && TryOnJob.STATUS_FAILED.equals(j.status)
+                        ? (j.error == null ? "未知错误" : j.error) : null)), error::setValue);
+        // 跟着当前任务切换进度来源（缓存命中的结果没有 id，不会有进度）
+        // 失败后重试还是同一个 id，每次提交都有新的进度，所以按 (id, 第几次提交) 切换
+        uploadProgress = Transformations.switchMap(
+                Transformations.distinctUntilChanged(Transformations.map(job,
+                        j -> j == null ? Pair.create(0L, 0) : Pair.create(j.id, j.attempts))),
+                key -> repo.observeUploadProgress(key.first));
     }
 
     public LiveData<String> getResultImageUrl() {
@@ -36,32 +67,36 @@ public class TryOnViewModel extends AndroidViewModel {
     }
 
     /**
-     * 调用 AI 换装
-     *
-     * 【重要修改】：这里改为调用 AiApi.tryOnAsync 以适配 tryon-api.com 的异步轮询机制
+     * 当前任务的上传进度（提交阶段才有）
+     */
+    public LiveData<UploadProgress> getUploadProgress() {
+        return uploadProgress;
+    }
+
+    /**
+     * 当前任务的完整状态（jobId、提交次数等）
      */
-    public void tryOn(File userImage, File outfitImage, String apiKey) {
-        if (userImage == null || outfitImage == null) {
+    public LiveData<TryOnJob> getJob() {
+        return job;
+    }
+
+    /**
+     * 调用 AI 换装：加入持久化任务队列，相同输入不会重复提交
+     * 图片类型沿用 ImagePreparer 的结果，上传时不再重新解析文件
+     */
+    public void tryOn(ImagePreparer.Result userImage, ImagePreparer.Result outfitImage, String apiKey) {
+        if (userImage == null || outfitImage == null || userImage.file == null || outfitImage.file == null) {
             error.postValue("图片不存在");
             return;
         }
 
-        loading.postValue(true);
-        error.postValue(null);
-
-        // 使用 tryOnAsync 而不是 tryOnReturnUrl
-        AiApi.tryOnAsync(getApplication(), userImage, outfitImage, apiKey, new AiApi.UrlCallback() {
-            @Override
-            public void onSuccess(String url) {
-                loading.postValue(false);
-                resultImageUrl.postValue(url);
-            }
-
-            @Override
-            public void onError(Exception e) {
-                loading.postValue(false);
-                error.postValue(e == null ? "未知错误" : e.getMessage());
-            }
+        LiveData<TryOnJob> source = repo.enqueue(userImage.file, userImage.mimeType,
+                outfitImage.file, outfitImage.mimeType, AiApi.CATEGORY_ONE_PIECES, apiKey);
+        // 可能在后台线程调用（准备图片之后），切回主线程再换观察对象
+        AppExecutors.getInstance().mainThread().execute(() -> {
+            if (jobSource != null) job.removeSource(jobSource);
+            jobSource = source;
+            job.addSource(source, job::setValue);
         });
     }
-}
\ No newline at end of file
+}
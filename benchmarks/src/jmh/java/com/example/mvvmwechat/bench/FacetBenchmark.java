@@ -0,0 +1,92 @@
+package com.example.mvvmwechat.bench;
+
+import com.example.mvvmwechat.core.CatalogMatcher;
+import com.example.mvvmwechat.core.FacetCounter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 筛选对话框的选项计数：在分组计数上汇总 vs. 每个选项扫描一遍目录
+ */
+@State(Scope.Benchmark)
+public class FacetBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private static final String[][] OPTIONS = {
+            {"all", "male", "female", "unisex"},
+            {"", "甜美", "休闲", "职业", "运动"},
+            {"", "春", "夏", "秋", "冬"},
+            {"", "晴", "雨", "雪", "阴"},
+            {"", "约会", "上学", "工作", "运动"}
+    };
+    private final String[] selection = {"female", "", "春", "", ""};
+
+    private List<SyntheticCatalog.Item> catalog;
+    private FacetCounter counter;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(size);
+        counter = groupAndBuild();
+    }
+
+    /**
+     * 同步后的一次分组（相当于 GROUP BY 五个筛选列）
+     */
+    @Benchmark
+    public FacetCounter groupAndBuild() {
+        Map<String, Integer> groups = new HashMap<>();
+        Map<String, SyntheticCatalog.Item> firstOfGroup = new HashMap<>();
+        for (SyntheticCatalog.Item it : catalog) {
+            String key = it.gender + '\u0000' + it.style + '\u0000' + it.season + '\u0000' + it.weather + '\u0000' + it.scene;
+            Integer n = groups.get(key);
+            groups.put(key, n == null ? 1 : n + 1);
+            if (n == null) firstOfGroup.put(key, it);
+        }
+        FacetCounter.Builder b = new FacetCounter.Builder();
+        for (Map.Entry<String, Integer> e : groups.entrySet()) {
+            SyntheticCatalog.Item it = firstOfGroup.get(e.getKey());
+            b.add(it.gender, it.style, it.season, it.weather, it.scene, e.getValue());
+        }
+        return b.build();
+    }
+
+    /**
+     * 对话框里每切换一次选项的代价
+     */
+    @Benchmark
+    public int[][] countFromGroups() {
+        return counter.count(selection, OPTIONS);
+    }
+
+    /**
+     * 对照：每个选项单独扫描整个目录
+     */
+    @Benchmark
+    public int[][] countByScanningPerOption() {
+        int[][] out = new int[FacetCounter.FACETS][];
+        for (int f = 0; f < FacetCounter.FACETS; f++) {
+            out[f] = new int[OPTIONS[f].length];
+            for (int o = 0; o < OPTIONS[f].length; o++) {
+                String[] s = selection.clone();
+                s[f] = OPTIONS[f][o];
+                CatalogMatcher m = new CatalogMatcher(s[0], s[1], s[2], s[3], s[4]);
+                int n = 0;
+                for (int i = 0, size = catalog.size(); i < size; i++) {
+                    if (m.matches(catalog.get(i))) n++;
+                }
+                out[f][o] = n;
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.mvvmwechat.bench;
+
+import com.example.mvvmwechat.core.CatalogMatcher;
+import com.example.mvvmwechat.core.CatalogOrder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 组合筛选 + 三种固定排序（内存实现，按标签匹配，结果与 OutfitFilter 的 SQL 一致）
+ */
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<SyntheticCatalog.Item> catalog;
+    // 典型的筛选：性别 + 季节
+    private final CatalogMatcher typical = new CatalogMatcher("female", "", "春", "", "");
+    // 只有性别（设置页的默认值），命中率最高
+    private final CatalogMatcher genderOnly = new CatalogMatcher("male", "", "", "", "");
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(size);
+    }
+
+    @Benchmark
+    public List<SyntheticCatalog.Item> filterTypical() {
+        List<SyntheticCatalog.Item> out = new ArrayList<>();
+        typical.filter(catalog, out);
+        return out;
+    }
+
+    @Benchmark
+    public List<SyntheticCatalog.Item> filterGenderThenSortBySeason() {
+        List<SyntheticCatalog.Item> out = new ArrayList<>();
+        genderOnly.filter(catalog, out);
+        CatalogOrder.sort(out, CatalogOrder.SORT_SEASON);
+        return out;
+    }
+
+    @Benchmark
+    public List<SyntheticCatalog.Item> filterGenderThenSortByStyle() {
+        List<SyntheticCatalog.Item> out = new ArrayList<>();
+        genderOnly.filter(catalog, out);
+        CatalogOrder.sort(out, CatalogOrder.SORT_STYLE);
+        return out;
+    }
+}
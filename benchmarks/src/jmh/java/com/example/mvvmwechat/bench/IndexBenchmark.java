@@ -0,0 +1,72 @@
+package com.example.mvvmwechat.bench;
+
+import com.example.mvvmwechat.core.CatalogMatcher;
+import com.example.mvvmwechat.core.OutfitIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 内存索引（OutfitIndex）：位图筛选 + 关键字匹配，和逐条字符串筛选对照
+ * 每次调用都换一次筛选条件，位图 AND 不会被 Query 的缓存跳过
+ */
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<SyntheticCatalog.Item> catalog;
+    private OutfitIndex index;
+    private OutfitIndex.Query query;
+    private boolean flip;
+
+    private final CatalogMatcher typical = new CatalogMatcher("female", "", "春", "", "");
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(size);
+        index = OutfitIndex.build(catalog);
+        query = index.newQuery();
+    }
+
+    @Benchmark
+    public OutfitIndex build() {
+        return OutfitIndex.build(catalog);
+    }
+
+    @Benchmark
+    public int indexFilterTypical() {
+        flip = !flip;
+        query.setFilter(flip ? "female" : "male", "", "春", "", "");
+        return query.run("");
+    }
+
+    @Benchmark
+    public int indexFilterAndKeyword() {
+        flip = !flip;
+        query.setFilter(flip ? "female" : "male", "", "春", "", "");
+        return query.run("连衣裙");
+    }
+
+    // 对照：逐条做筛选，再对标题/风格做 toLowerCase().contains()
+    @Benchmark
+    public List<SyntheticCatalog.Item> scanFilterAndKeyword() {
+        List<SyntheticCatalog.Item> out = new ArrayList<>();
+        for (SyntheticCatalog.Item item : catalog) {
+            if (!typical.matches(item)) continue;
+            if (contains(item.title, "连衣裙") || contains(item.style, "连衣裙")) out.add(item);
+        }
+        return out;
+    }
+
+    private static boolean contains(String value, String keyword) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(keyword);
+    }
+}
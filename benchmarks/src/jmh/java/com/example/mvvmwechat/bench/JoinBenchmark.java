@@ -0,0 +1,37 @@
+package com.example.mvvmwechat.bench;
+
+import com.example.mvvmwechat.core.CatalogJoin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * 收藏列表：按收藏的 id 顺序从目录里取出对应的穿搭
+ */
+@State(Scope.Benchmark)
+public class JoinBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"50", "500"})
+    public int favorites;
+
+    private List<SyntheticCatalog.Item> catalog;
+    private long[] favoriteIds;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(size);
+        favoriteIds = SyntheticCatalog.sampleIds(size, favorites);
+    }
+
+    @Benchmark
+    public List<SyntheticCatalog.Item> favoritesInOrder() {
+        return CatalogJoin.inOrder(favoriteIds, catalog);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.mvvmwechat.bench;
+
+import com.example.mvvmwechat.core.OutfitRanker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * 今日推荐：特征快照的构建（目录变化后一次）和每次请求的 top-K 打分
+ */
+@State(Scope.Benchmark)
+public class RankBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"20", "100"})
+    public int limit;
+
+    private List<SyntheticCatalog.Item> catalog;
+    private OutfitRanker.Features features;
+    private OutfitRanker.Request request;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(size);
+        features = OutfitRanker.Features.build(catalog);
+
+        request = new OutfitRanker.Request();
+        request.gender = "female";
+        request.defaultStyle = "甜美";
+        request.weatherTag = "雨";
+        request.temperature = 12.5;
+        request.month = 10;
+        request.favoriteIds = SyntheticCatalog.sampleIds(size, 50);
+        request.limit = limit;
+    }
+
+    @Benchmark
+    public OutfitRanker.Features buildFeatures() {
+        return OutfitRanker.Features.build(catalog);
+    }
+
+    @Benchmark
+    public long[] topK() {
+        return OutfitRanker.topK(features, request);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mvvmwechat.bench;
+
+import com.example.mvvmwechat.core.ResultUrls;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 换装接口返回的结果地址解析，覆盖几种常见的返回格式
+ */
+@State(Scope.Benchmark)
+public class ResultUrlBenchmark {
+    @Param({"direct", "data_array", "outputs", "not_found"})
+    public String shape;
+
+    private static final String URL = "https://cdn.example.com/results/2f9c1e7a/tryon.png";
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        switch (shape) {
+            case "direct":
+                json = "{\"status\":\"completed\",\"result_url\":\"" + URL + "\"}";
+                break;
+            case "data_array":
+                json = "{\"status\":\"completed\",\"data\":[{\"id\":1,\"url\":\"" + URL + "\"}]}";
+                break;
+            case "outputs":
+                json = "{\"status\":\"completed\",\"meta\":{\"elapsed\":12.5},\"outputs\":[{\"url\":\"" + URL + "\"}]}";
+                break;
+            default:
+                json = "{\"status\":\"processing\",\"progress\":0.42,\"data\":{\"eta\":8}}";
+                break;
+        }
+    }
+
+    @Benchmark
+    public String find() {
+        return ResultUrls.find(json);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.mvvmwechat.bench;
+
+import com.example.mvvmwechat.core.OutfitIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SyntheticCatalog - 基准测试用的合成目录，取值和后端数据的词表一致，固定随机种子保证每次相同
+ */
+final class SyntheticCatalog {
+    static final long SEED = 20240601L;
+
+    static final String[] GENDERS = {"male", "female", "unisex"};
+    static final String[] STYLES = {"甜美", "休闲", "职业", "运动"};
+    static final String[] SEASONS = {"春", "夏", "秋", "冬", "春夏", "秋冬", "春秋", "四季"};
+    static final String[] WEATHERS = {"晴", "阴", "雨", "雪", "晴阴"};
+    static final String[] SCENES = {"约会", "上学", "工作", "运动"};
+    // 标题按 id 轮换，不占用随机序列，其它字段和加标题之前完全一样
+    static final String[] TITLES = {"春日碎花连衣裙", "Denim 夹克叠穿", "通勤西装套装", "雨天风衣搭配", "冬季羽绒服", "运动卫衣"};
+
+    private SyntheticCatalog() {}
+
+    static final class Item implements OutfitIndex.Entry {
+        final long id;
+        final String title;
+        final String gender;
+        final String style;
+        final String season;
+        final String weather;
+        final String scene;
+
+        Item(long id, String title, String gender, String style, String season, String weather, String scene) {
+            this.id = id;
+            this.title = title;
+            this.gender = gender;
+            this.style = style;
+            this.season = season;
+            this.weather = weather;
+            this.scene = scene;
+        }
+
+        @Override public long itemId() { return id; }
+        @Override public String title() { return title; }
+        @Override public String gender() { return gender; }
+        @Override public String style() { return style; }
+        @Override public String season() { return season; }
+        @Override public String weather() { return weather; }
+        @Override public String scene() { return scene; }
+    }
+
+    /**
+     * id 从 1 开始递增（与 Room 自增主键一致）；约 2% 的字段为 null，模拟后端缺字段
+     */
+    static List<Item> generate(int size) {
+        Random r = new Random(SEED);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i + 1, TITLES[i % TITLES.length],
+                    pick(r, GENDERS), pick(r, STYLES), pick(r, SEASONS), pick(r, WEATHERS), pick(r, SCENES)));
+        }
+        return items;
+    }
+
+    /**
+     * 随机抽取 count 个已存在的 id（可能重复，和用户收藏一样无序）
+     */
+    static long[] sampleIds(int catalogSize, int count) {
+        Random r = new Random(SEED + 1);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) ids[i] = 1 + r.nextInt(catalogSize);
+        return ids;
+    }
+
+    private static String pick(Random r, String[] values) {
+        return r.nextInt(50) == 0 ? null : values[r.nextInt(values.length)];
+    }
+}
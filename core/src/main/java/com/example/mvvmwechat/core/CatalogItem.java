@@ -0,0 +1,19 @@
+package com.example.mvvmwechat.core;
+
+/**
+ * CatalogItem - 穿搭目录里的一条，只包含筛选/排序用到的字段
+ * app 里的 Outfit、OutfitTraits 实现这个接口，基准测试用合成数据实现
+ */
+public interface CatalogItem {
+    long itemId();
+
+    String gender();
+
+    String style();
+
+    String season();
+
+    String weather();
+
+    String scene();
+}
@@ -0,0 +1,38 @@
+package com.example.mvvmwechat.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CatalogJoin - 按 id 列表从一批行里取出对应的行，并保持 id 列表的顺序
+ *
+ * 用于推荐结果 / 收藏列表：SQL 的 IN 查询不保证顺序，读出来后在这里排回去。
+ * 只对 id 列表（通常很短）排序，每行做一次二分查找：O((n + m) log m)，不为每行装箱或建 Map 节点
+ */
+public final class CatalogJoin {
+    private CatalogJoin() {}
+
+    /**
+     * @return ids 中每个在 rows 里存在的行，顺序与 ids 一致；不存在的 id 跳过
+     */
+    public static <T extends CatalogItem> List<T> inOrder(long[] ids, List<T> rows) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        Object[] slots = new Object[sorted.length];
+        for (int i = 0, n = rows.size(); i < n; i++) {
+            T row = rows.get(i);
+            int pos = Arrays.binarySearch(sorted, row.itemId());
+            if (pos >= 0) slots[pos] = row;
+        }
+
+        List<T> out = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            int pos = Arrays.binarySearch(sorted, id);
+            @SuppressWarnings("unchecked")
+            T row = (T) slots[pos];
+            if (row != null) out.add(row);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.mvvmwechat.core;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CatalogMatcher - 组合筛选的内存实现，语义与 app 里 OutfitFilter 生成的 SQL（outfit_tags 标签表）一致：
+ *  - gender：等于所选性别或 unisex 都算匹配；"all" 或空表示不限
+ *  - style/season/weather/scene：条件和字段都由 TagSplitter 拆成标签，条件的每个标签字段都要带有
+ *    （"春" 能匹配 "春夏"，"春夏" 只匹配同时带春和夏的）；空表示不限
+ */
+public final class CatalogMatcher {
+    private static final String[] NO_TAGS = new String[0];
+
+    private final String gender;
+    // 条件拆出的标签，构造时算一次
+    private final String[] style;
+    private final String[] season;
+    private final String[] weather;
+    private final String[] scene;
+
+    public CatalogMatcher(String gender, String style, String season, String weather, String scene) {
+        this.gender = normalize(gender);
+        this.style = tags(TagSplitter.STYLE, style);
+        this.season = tags(TagSplitter.SEASON, season);
+        this.weather = tags(TagSplitter.WEATHER, weather);
+        this.scene = tags(TagSplitter.SCENE, scene);
+    }
+
+    public boolean matches(CatalogItem item) {
+        return genderMatches(item.gender(), gender)
+                && tagsMatch(TagSplitter.STYLE, item.style(), style)
+                && tagsMatch(TagSplitter.SEASON, item.season(), season)
+                && tagsMatch(TagSplitter.WEATHER, item.weather(), weather)
+                && tagsMatch(TagSplitter.SCENE, item.scene(), scene);
+    }
+
+    /**
+     * 把 items 中匹配的追加到 out
+     * @return 匹配的条数
+     */
+    public <T extends CatalogItem> int filter(List<T> items, List<? super T> out) {
+        int n = 0;
+        for (int i = 0, size = items.size(); i < size; i++) {
+            T item = items.get(i);
+            if (matches(item)) {
+                out.add(item);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @param wanted 已经 normalize 过的选择
+     */
+    public static boolean genderMatches(String value, String wanted) {
+        if (wanted.isEmpty() || wanted.equals("all")) return true;
+        if (value == null) return false;
+        return value.equalsIgnoreCase(wanted) || value.equalsIgnoreCase("unisex");
+    }
+
+    /**
+     * 字段值拆成标签后是否带有 wanted 的全部标签；null 值在有条件时不匹配
+     * @param wanted tags() 拆出的条件标签
+     */
+    public static boolean tagsMatch(String facet, String value, String[] wanted) {
+        if (wanted.length == 0) return true;
+        if (value == null) return false;
+        return containsAll(tags(facet, value), wanted);
+    }
+
+    /**
+     * have 是否包含 wanted 的每一个标签（标签数都很少，直接线性查找）
+     */
+    public static boolean containsAll(String[] have, String[] wanted) {
+        for (String w : wanted) {
+            boolean found = false;
+            for (String h : have) {
+                if (h.equals(w)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * TagSplitter 拆出的标签（数组形式）；空值返回空数组
+     */
+    public static String[] tags(String facet, String value) {
+        List<String> tags = TagSplitter.split(facet, value);
+        return tags.isEmpty() ? NO_TAGS : tags.toArray(new String[0]);
+    }
+
+    public static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+}
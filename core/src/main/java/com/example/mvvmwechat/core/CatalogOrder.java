@@ -0,0 +1,79 @@
+package com.example.mvvmwechat.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CatalogOrder - 三种固定排序（风格 / 季节 / 天气）的内存实现，顺序与 OutfitFilter 的 ORDER BY 一致
+ *
+ * 排序键每条只算一次，再对下标排序；比较时不再扫描字符串
+ */
+public final class CatalogOrder {
+    public static final String SORT_STYLE = "style";
+    public static final String SORT_SEASON = "season";
+    public static final String SORT_WEATHER = "weather";
+
+    // 未知的季节/天气排最后
+    private static final int UNKNOWN = 99;
+
+    private CatalogOrder() {}
+
+    /**
+     * 按排序方式原地排序；同序时按 id
+     */
+    public static <T extends CatalogItem> void sort(List<T> items, String sortMode) {
+        int n = items.size();
+        if (n < 2) return;
+        final long[] ids = new long[n];
+        final int[] ranks = new int[n];
+        final String[] styles = SORT_SEASON.equals(sortMode) || SORT_WEATHER.equals(sortMode) ? null : new String[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            T item = items.get(i);
+            ids[i] = item.itemId();
+            order[i] = i;
+            if (SORT_SEASON.equals(sortMode)) {
+                ranks[i] = firstOf(item.season(), "春夏秋冬");
+            } else if (SORT_WEATHER.equals(sortMode)) {
+                ranks[i] = firstOf(item.weather(), "晴阴雨雪");
+            } else {
+                styles[i] = item.style();
+            }
+        }
+        Arrays.sort(order, (a, b) -> {
+            int c;
+            if (styles != null) {
+                c = compareNullsFirst(styles[a], styles[b]);
+            } else {
+                c = Integer.compare(ranks[a], ranks[b]);
+            }
+            return c != 0 ? c : Long.compare(ids[a], ids[b]);
+        });
+
+        Object[] sorted = new Object[n];
+        for (int i = 0; i < n; i++) sorted[i] = items.get(order[i]);
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            T item = (T) sorted[i];
+            items.set(i, item);
+        }
+    }
+
+    /**
+     * 与 SQL 的 CASE WHEN instr(...) 一致：按 chars 的顺序，第一个出现在 value 里的字的序号（从 1 开始）
+     */
+    static int firstOf(String value, String chars) {
+        if (value == null) return UNKNOWN;
+        for (int i = 0; i < chars.length(); i++) {
+            if (value.indexOf(chars.charAt(i)) >= 0) return i + 1;
+        }
+        return UNKNOWN;
+    }
+
+    // SQLite 默认的 BINARY 排序：NULL 最前；常用中文都在 BMP 内，按 UTF-16 比较与 SQLite 按 UTF-8 字节比较结果一致
+    private static int compareNullsFirst(String a, String b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+}
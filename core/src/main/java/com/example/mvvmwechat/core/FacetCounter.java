@@ -0,0 +1,126 @@
+package com.example.mvvmwechat.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FacetCounter - 筛选对话框各选项的结果条数
+ *
+ * 输入是目录按筛选列分组计数的结果（app 里是 OutfitDao.observeFacetCube()，同步后由 Room 重新查询）；
+ * 对话框里每改一次选择只在这几百行分组里重新汇总，不再扫描整个目录
+ *
+ * 某个选项的条数 = 其它维度保持当前选择、这个维度换成该选项时能查到的条数，匹配规则见 CatalogMatcher
+ * （按标签匹配；分组值在构建时拆好标签，选择和候选项每次调用拆一次）
+ */
+public final class FacetCounter {
+    public static final int GENDER = 0;
+    public static final int STYLE = 1;
+    public static final int SEASON = 2;
+    public static final int WEATHER = 3;
+    public static final int SCENE = 4;
+    public static final int FACETS = 5;
+
+    // [分组][维度][标签]；性别不拆，是 {已转小写的值}
+    private final String[][][] tags;
+    private final int[] counts;
+
+    private FacetCounter(String[][][] tags, int[] counts) {
+        this.tags = tags;
+        this.counts = counts;
+    }
+
+    /**
+     * 逐组添加分组计数
+     */
+    public static final class Builder {
+        private final List<String[][]> tags = new ArrayList<>();
+        private final List<Integer> counts = new ArrayList<>();
+
+        public Builder add(String gender, String style, String season, String weather, String scene, int count) {
+            tags.add(new String[][]{
+                    {gender == null ? null : CatalogMatcher.normalize(gender)},
+                    CatalogMatcher.tags(TagSplitter.STYLE, style),
+                    CatalogMatcher.tags(TagSplitter.SEASON, season),
+                    CatalogMatcher.tags(TagSplitter.WEATHER, weather),
+                    CatalogMatcher.tags(TagSplitter.SCENE, scene)});
+            counts.add(count);
+            return this;
+        }
+
+        public FacetCounter build() {
+            int[] c = new int[counts.size()];
+            for (int i = 0; i < c.length; i++) c[i] = counts.get(i);
+            return new FacetCounter(tags.toArray(new String[0][][]), c);
+        }
+    }
+
+    /**
+     * 满足当前全部选择的条数
+     * @param selection 每个维度当前的选择，""（性别为 "all"）表示不限
+     */
+    public int total(String[] selection) {
+        String[][] wanted = new String[FACETS][];
+        for (int f = 0; f < FACETS; f++) wanted[f] = wanted(f, selection[f]);
+        int total = 0;
+        for (int i = 0; i < tags.length; i++) {
+            if (matchesAll(tags[i], wanted)) total += counts[i];
+        }
+        return total;
+    }
+
+    /**
+     * 每个维度每个候选项的条数，一次遍历分组算完
+     * @param options [维度][候选项]
+     * @return [维度][候选项] 的条数
+     */
+    public int[][] count(String[] selection, String[][] options) {
+        String[][] wanted = new String[FACETS][];
+        int[][] out = new int[FACETS][];
+        String[][][] opts = new String[FACETS][][];
+        for (int f = 0; f < FACETS; f++) {
+            wanted[f] = wanted(f, selection[f]);
+            out[f] = new int[options[f].length];
+            opts[f] = new String[options[f].length][];
+            for (int o = 0; o < opts[f].length; o++) opts[f][o] = wanted(f, options[f][o]);
+        }
+
+        for (int i = 0; i < tags.length; i++) {
+            String[][] row = tags[i];
+            // 只有一个维度不满足的分组，只会计入那个维度的候选项；两个以上不满足的对谁都没有贡献
+            int miss = -1;
+            int missCount = 0;
+            for (int f = 0; f < FACETS && missCount < 2; f++) {
+                if (!matches(f, row[f], wanted[f])) {
+                    miss = f;
+                    missCount++;
+                }
+            }
+            if (missCount >= 2) continue;
+            for (int f = 0; f < FACETS; f++) {
+                if (missCount == 1 && f != miss) continue;
+                for (int o = 0; o < opts[f].length; o++) {
+                    if (matches(f, row[f], opts[f][o])) out[f][o] += counts[i];
+                }
+            }
+        }
+        return out;
+    }
+
+    private static boolean matchesAll(String[][] row, String[][] wanted) {
+        for (int f = 0; f < FACETS; f++) {
+            if (!matches(f, row[f], wanted[f])) return false;
+        }
+        return true;
+    }
+
+    // wanted 由 wanted() 算出
+    private static boolean matches(int facet, String[] tags, String[] wanted) {
+        return facet == GENDER ? CatalogMatcher.genderMatches(tags[0], wanted[0]) : CatalogMatcher.containsAll(tags, wanted);
+    }
+
+    // 一个维度的选择：性别是 {normalize 后的值}，其它维度拆成标签
+    private static String[] wanted(int facet, String value) {
+        return facet == GENDER ? new String[]{CatalogMatcher.normalize(value)}
+                : CatalogMatcher.tags(TagSplitter.FACETS[facet - 1], value);
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.mvvmwechat.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OutfitIndex - 穿搭目录的内存列式索引：目录每个版本构建一次，之后的筛选和关键字搜索都不再查库
+ *
+ * - 行号就是 build 时的顺序（app 里按 id 排序），ids[row] 是穿搭 id
+ * - 性别和每个维度各一份标签字典（TagSplitter 拆分，同一个标签只存一份字符串），每个标签一个位图，每行一位
+ * - 标题和其它文本字段预先转小写，连续存放在一个 char[] 里
+ *
+ * 查询分两步：筛选条件对应的位图按 64 位字做 AND，再对剩下的行做关键字子串匹配。
+ * 筛选语义与 OutfitFilter 生成的 SQL 一致；关键字按空白拆成多个词，每个词都要在标题或其它字段中出现，
+ * 按命中的字段打分（标题优先），同分保持行顺序。
+ *
+ * 索引构建后只读，可以多线程共用；查询的缓冲区都在 Query 里，复用同一个 Query 时每次查询基本不分配内存。
+ */
+public final class OutfitIndex {
+    private static final String UNISEX = "unisex";
+    private static final int TITLE_WEIGHT = 4;
+    private static final int OTHER_WEIGHT = 1;
+    // 字段之间的分隔，关键字的词不含空白，所以不会跨字段匹配
+    private static final char FIELD_SEPARATOR = '\n';
+
+    /**
+     * 建索引需要的字段：筛选用的维度 + 标题
+     */
+    public interface Entry extends CatalogItem {
+        String title();
+    }
+
+    private final long[] ids;
+    private final int words;
+    private final Map<String, long[]> genders;
+    // 与 TagSplitter.FACETS 的顺序一致
+    private final List<Map<String, long[]>> facets;
+    private final char[] text;
+    // 第 row 行：标题是 text[textStart[2 * row], textStart[2 * row + 1])，其它字段到 textStart[2 * row + 2]
+    private final int[] textStart;
+
+    private OutfitIndex(long[] ids, Map<String, long[]> genders, List<Map<String, long[]>> facets,
+                        char[] text, int[] textStart) {
+        this.ids = ids;
+        this.words = (ids.length + 63) >>> 6;
+        this.genders = genders;
+        this.facets = facets;
+        this.text = text;
+        this.textStart = textStart;
+    }
+
+    public static OutfitIndex build(List<? extends Entry> items) {
+        int n = items.size();
+        int words = (n + 63) >>> 6;
+        long[] ids = new long[n];
+        Map<String, long[]> genders = new HashMap<>();
+        List<Map<String, long[]>> facets = new ArrayList<>(TagSplitter.FACETS.length);
+        for (int f = 0; f < TagSplitter.FACETS.length; f++) facets.add(new HashMap<String, long[]>());
+        StringBuilder text = new StringBuilder(n * 16);
+        int[] textStart = new int[2 * n + 1];
+
+        for (int row = 0; row < n; row++) {
+            Entry e = items.get(row);
+            ids[row] = e.itemId();
+            String gender = CatalogMatcher.normalize(e.gender());
+            if (!gender.isEmpty()) set(bitsFor(genders, gender, words), row);
+            for (int f = 0; f < TagSplitter.FACETS.length; f++) {
+                for (String tag : TagSplitter.split(TagSplitter.FACETS[f], facetValue(e, f))) {
+                    set(bitsFor(facets.get(f), tag, words), row);
+                }
+            }
+
+            textStart[2 * row] = text.length();
+            appendLower(text, e.title());
+            textStart[2 * row + 1] = text.length();
+            appendLower(text, e.style());
+            text.append(FIELD_SEPARATOR);
+            appendLower(text, e.scene());
+            text.append(FIELD_SEPARATOR);
+            appendLower(text, e.season());
+            text.append(FIELD_SEPARATOR);
+            appendLower(text, e.weather());
+        }
+        textStart[2 * n] = text.length();
+
+        char[] chars = new char[text.length()];
+        text.getChars(0, chars.length, chars, 0);
+        return new OutfitIndex(ids, genders, facets, chars, textStart);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * 新建一个查询；同一个线程里反复查询时复用它
+     */
+    public Query newQuery() {
+        return new Query(this);
+    }
+
+    private static String facetValue(CatalogItem e, int facet) {
+        switch (facet) {
+            case 0:
+                return e.style();
+            case 1:
+                return e.season();
+            case 2:
+                return e.weather();
+            default:
+                return e.scene();
+        }
+    }
+
+    private static long[] bitsFor(Map<String, long[]> dict, String tag, int words) {
+        long[] bits = dict.get(tag);
+        if (bits == null) {
+            bits = new long[words];
+            dict.put(tag, bits);
+        }
+        return bits;
+    }
+
+    private static void set(long[] bits, int row) {
+        bits[row >>> 6] |= 1L << row;
+    }
+
+    // 逐字转小写（不用 String.toLowerCase，和查询时对关键字的处理保持一致）
+    private static void appendLower(StringBuilder sb, String s) {
+        if (s == null) return;
+        for (int i = 0; i < s.length(); i++) sb.append(Character.toLowerCase(s.charAt(i)));
+    }
+
+    // text[from, to) 中是否出现 needle[start, end)
+    private boolean contains(int from, int to, char[] needle, int start, int end) {
+        int len = end - start;
+        char first = needle[start];
+        for (int i = from, last = to - len; i <= last; i++) {
+            if (text[i] != first) continue;
+            int j = 1;
+            while (j < len && text[i + j] == needle[start + j]) j++;
+            if (j == len) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 一次查询的条件和结果；setFilter 在条件变化时才重新计算位图，run 按关键字匹配并排序
+     */
+    public static final class Query {
+        private final OutfitIndex index;
+        // 满足筛选条件的行
+        private final long[] filtered;
+        private final int[] rows;
+        private final int[] scores;
+        private final int[] result;
+        private int count;
+
+        private char[] keyword = new char[16];
+        private int[] termStart = new int[4];
+        private int[] termEnd = new int[4];
+        private int termCount;
+        private int[] buckets = new int[8];
+
+        private boolean filterSet;
+        private String gender;
+        private String style;
+        private String season;
+        private String weather;
+        private String scene;
+
+        Query(OutfitIndex index) {
+            this.index = index;
+            int n = index.ids.length;
+            filtered = new long[index.words];
+            rows = new int[n];
+            scores = new int[n];
+            result = new int[n];
+            setFilter(null, null, null, null, null);
+        }
+
+        /**
+         * 筛选条件，空值表示不限；和上一次相同时直接复用位图
+         */
+        public void setFilter(String gender, String style, String season, String weather, String scene) {
+            gender = CatalogMatcher.normalize(gender);
+            style = CatalogMatcher.normalize(style);
+            season = CatalogMatcher.normalize(season);
+            weather = CatalogMatcher.normalize(weather);
+            scene = CatalogMatcher.normalize(scene);
+            if (filterSet && gender.equals(this.gender) && style.equals(this.style) && season.equals(this.season)
+                    && weather.equals(this.weather) && scene.equals(this.scene)) {
+                return;
+            }
+            this.gender = gender;
+            this.style = style;
+            this.season = season;
+            this.weather = weather;
+            this.scene = scene;
+            filterSet = true;
+
+            Arrays.fill(filtered, -1L);
+            int tail = index.ids.length & 63;
+            if (tail != 0) filtered[filtered.length - 1] = (1L << tail) - 1;
+
+            if (!gender.isEmpty() && !gender.equals("all")) {
+                long[] g = index.genders.get(gender);
+                long[] u = index.genders.get(UNISEX);
+                for (int w = 0; w < filtered.length; w++) {
+                    filtered[w] &= (g == null ? 0 : g[w]) | (u == null ? 0 : u[w]);
+                }
+            }
+            andTags(0, style);
+            andTags(1, season);
+            andTags(2, weather);
+            andTags(3, scene);
+        }
+
+        // 条件拆出的每个标签都要带有；有不存在的标签时结果为空
+        private void andTags(int facet, String value) {
+            if (value.isEmpty()) return;
+            Map<String, long[]> dict = index.facets.get(facet);
+            for (String tag : TagSplitter.split(TagSplitter.FACETS[facet], value)) {
+                long[] bits = dict.get(tag);
+                if (bits == null) {
+                    Arrays.fill(filtered, 0);
+                    return;
+                }
+                for (int w = 0; w < filtered.length; w++) filtered[w] &= bits[w];
+            }
+        }
+
+        /**
+         * 在满足筛选条件的行里匹配关键字（空表示不限），结果按相关度排序
+         * @return 结果条数
+         */
+        public int run(String keyword) {
+            parseTerms(keyword);
+            int n = 0;
+            int maxScore = 0;
+            for (int w = 0; w < filtered.length; w++) {
+                long bits = filtered[w];
+                while (bits != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int score = score(row);
+                    if (score < 0) continue;
+                    rows[n] = row;
+                    scores[n] = score;
+                    n++;
+                    if (score > maxScore) maxScore = score;
+                }
+            }
+            sortByScore(n, maxScore);
+            count = n;
+            return n;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /**
+         * 第 i 条结果的穿搭 id
+         */
+        public long id(int i) {
+            return index.ids[result[i]];
+        }
+
+        /**
+         * 全部结果的 id（会新建数组）
+         */
+        public long[] ids() {
+            long[] out = new long[count];
+            for (int i = 0; i < count; i++) out[i] = index.ids[result[i]];
+            return out;
+        }
+
+        // 关键字逐字转小写放进 keyword，按空白切成 [termStart, termEnd) 的若干个词
+        private void parseTerms(String raw) {
+            termCount = 0;
+            if (raw == null) return;
+            int len = raw.length();
+            if (keyword.length < len) keyword = new char[len];
+            int start = -1;
+            for (int i = 0; i <= len; i++) {
+                boolean space = i == len || Character.isWhitespace(raw.charAt(i));
+                if (!space) {
+                    keyword[i] = Character.toLowerCase(raw.charAt(i));
+                    if (start < 0) start = i;
+                } else if (start >= 0) {
+                    if (termCount == termStart.length) {
+                        termStart = Arrays.copyOf(termStart, termCount * 2);
+                        termEnd = Arrays.copyOf(termEnd, termCount * 2);
+                    }
+                    termStart[termCount] = start;
+                    termEnd[termCount] = i;
+                    termCount++;
+                    start = -1;
+                }
+            }
+        }
+
+        // 每个词都要命中，返回各词的权重之和；有词没命中时返回 -1
+        private int score(int row) {
+            int titleFrom = index.textStart[2 * row];
+            int otherFrom = index.textStart[2 * row + 1];
+            int otherTo = index.textStart[2 * row + 2];
+            int total = 0;
+            for (int t = 0; t < termCount; t++) {
+                int s = 0;
+                if (index.contains(titleFrom, otherFrom, keyword, termStart[t], termEnd[t])) s += TITLE_WEIGHT;
+                if (index.contains(otherFrom, otherTo, keyword, termStart[t], termEnd[t])) s += OTHER_WEIGHT;
+                if (s == 0) return -1;
+                total += s;
+            }
+            return total;
+        }
+
+        // 按分数从高到低的计数排序，同分保持行顺序；分数的取值很少，不需要比较排序
+        private void sortByScore(int n, int maxScore) {
+            if (buckets.length < maxScore + 1) buckets = new int[maxScore + 1];
+            Arrays.fill(buckets, 0, maxScore + 1, 0);
+            for (int i = 0; i < n; i++) buckets[scores[i]]++;
+            int pos = 0;
+            for (int s = maxScore; s >= 0; s--) {
+                int c = buckets[s];
+                buckets[s] = pos;
+                pos += c;
+            }
+            for (int i = 0; i < n; i++) result[buckets[scores[i]]++] = rows[i];
+        }
+    }
+}
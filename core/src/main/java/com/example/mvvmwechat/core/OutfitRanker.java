@@ -0,0 +1,348 @@
+package com.example.mvvmwechat.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OutfitRanker - "今日推荐" 打分排序
+ *
+ * - Features：目录的排序特征按列存放，字符串列编码成字典下标，季节/天气预先解析成位掩码，
+ *   目录不变时反复使用，打分时不再做字符串比较
+ * - topK()：按请求把每个字典值的得分算一次，再逐行查表累加；用大小为 k 的最小堆选出前 k 条，
+ *   代价 O(n log k)，不对整个目录排序
+ *
+ * 得分 = 天气匹配 + 季节匹配 + 气温对应的季节 + 默认风格 + 收藏偏好（收藏里同风格/场景的比例）
+ * 性别和筛选条件是硬条件，不满足的不参与排序；匹配规则见 CatalogMatcher
+ */
+public final class OutfitRanker {
+    static final int SPRING = 1;
+    static final int SUMMER = 1 << 1;
+    static final int AUTUMN = 1 << 2;
+    static final int WINTER = 1 << 3;
+
+    // 第 i 个字对应第 i 位，季节的位与上面的常量一致
+    private static final String SEASON_CHARS = "春夏秋冬";
+    private static final String WEATHER_CHARS = "晴阴雨雪";
+
+    private static final double W_WEATHER = 3.0;
+    private static final double W_SEASON = 2.0;
+    private static final double W_TEMPERATURE = 1.0;
+    private static final double W_STYLE = 1.5;
+    private static final double W_FAVORITE_STYLE = 1.0;
+    private static final double W_FAVORITE_SCENE = 0.5;
+
+    // 气温分档（摄氏度）：高于 HOT 偏向夏装，低于 COLD 偏向冬装，中间偏向春秋
+    private static final double HOT = 26;
+    private static final double COLD = 10;
+
+    private OutfitRanker() {}
+
+    /**
+     * 一次推荐请求：用户设置 + 当前天气 + 筛选条件
+     */
+    public static class Request {
+        // "all" / male / female
+        public String gender = "all";
+        public String defaultStyle = "";
+        // 当前天气标签：晴 / 阴 / 雨 / 雪，未知时为 null
+        public String weatherTag;
+        // 当前气温，未知时为 NaN
+        public double temperature = Double.NaN;
+        // 当前月份 1-12
+        public int month;
+        // 收藏的穿搭 id
+        public long[] favoriteIds = new long[0];
+        // 筛选条件（包含匹配，空串表示不限）
+        public String style = "";
+        public String season = "";
+        public String weather = "";
+        public String scene = "";
+        public int limit = 100;
+    }
+
+    /**
+     * 目录的排序特征（不可变）；按 id 升序存放
+     */
+    public static final class Features {
+        final long[] ids;
+        final int[] gender;
+        final int[] style;
+        final int[] season;
+        final int[] weather;
+        final int[] scene;
+
+        final Dictionary genders;
+        final Dictionary styles;
+        final Dictionary seasons;
+        final Dictionary weathers;
+        final Dictionary scenes;
+        // 每个季节/天气字典值对应的位掩码（build 时算好，之后不再修改）
+        int[] seasonMasks;
+        int[] weatherMasks;
+
+        private Features(int n) {
+            ids = new long[n];
+            gender = new int[n];
+            style = new int[n];
+            season = new int[n];
+            weather = new int[n];
+            scene = new int[n];
+            genders = new Dictionary();
+            styles = new Dictionary();
+            seasons = new Dictionary();
+            weathers = new Dictionary();
+            scenes = new Dictionary();
+        }
+
+        /**
+         * @param rows 按 id 升序（app 里是 OutfitDao.getAllTraits()）
+         */
+        public static Features build(List<? extends CatalogItem> rows) {
+            int n = rows.size();
+            Features f = new Features(n);
+            for (int i = 0; i < n; i++) {
+                CatalogItem t = rows.get(i);
+                f.ids[i] = t.itemId();
+                f.gender[i] = f.genders.code(t.gender());
+                f.style[i] = f.styles.code(t.style());
+                f.season[i] = f.seasons.code(t.season());
+                f.weather[i] = f.weathers.code(t.weather());
+                f.scene[i] = f.scenes.code(t.scene());
+            }
+            f.seasonMasks = f.seasons.masks(SEASON_CHARS);
+            f.weatherMasks = f.weathers.masks(WEATHER_CHARS);
+            return f;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, id);
+        }
+    }
+
+    /**
+     * 字符串列的字典编码：值统一转小写，null 单独编码为 0
+     */
+    static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary() {
+            values.add(null);
+        }
+
+        int code(String raw) {
+            if (raw == null) return 0;
+            String v = raw.trim().toLowerCase(Locale.ROOT);
+            Integer c = codes.get(v);
+            if (c == null) {
+                c = values.size();
+                codes.put(v, c);
+                values.add(v);
+            }
+            return c;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        // 每个值包含 chars 里第 i 个字时置第 i 位（"春夏" -> SPRING | SUMMER）
+        int[] masks(String chars) {
+            int[] out = new int[values.size()];
+            for (int c = 1; c < out.length; c++) out[c] = maskOf(values.get(c), chars);
+            return out;
+        }
+
+        // 每个值是否满足筛选条件（按标签匹配，同 CatalogMatcher）
+        boolean[] matching(String facet, String needle) {
+            boolean[] out = new boolean[values.size()];
+            String[] wanted = CatalogMatcher.tags(facet, needle);
+            for (int c = 0; c < out.length; c++) out[c] = CatalogMatcher.tagsMatch(facet, values.get(c), wanted);
+            return out;
+        }
+    }
+
+    static int maskOf(String value, String chars) {
+        if (value == null) return 0;
+        int mask = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            if (value.indexOf(chars.charAt(i)) >= 0) mask |= 1 << i;
+        }
+        return mask;
+    }
+
+    static int seasonOfMonth(int month) {
+        if (month >= 3 && month <= 5) return SPRING;
+        if (month >= 6 && month <= 8) return SUMMER;
+        if (month >= 9 && month <= 11) return AUTUMN;
+        return WINTER;
+    }
+
+    static int seasonsForTemperature(double celsius) {
+        if (Double.isNaN(celsius)) return 0;
+        if (celsius >= HOT) return SUMMER;
+        if (celsius <= COLD) return WINTER;
+        return SPRING | AUTUMN;
+    }
+
+    /**
+     * 选出得分最高的 limit 条
+     * @return 穿搭 id，按得分从高到低；同分时 id 小的在前
+     */
+    public static long[] topK(Features f, Request r) {
+        int k = Math.min(r.limit, f.size());
+        if (k <= 0) return new long[0];
+
+        // 1. 每个字典值的得分 / 是否通过筛选，只算一次（字典通常只有几十项）
+        boolean[] genderOk = genderMatches(f.genders, r.gender);
+        boolean[] styleOk = f.styles.matching(TagSplitter.STYLE, r.style);
+        boolean[] seasonOk = f.seasons.matching(TagSplitter.SEASON, r.season);
+        boolean[] weatherOk = f.weathers.matching(TagSplitter.WEATHER, r.weather);
+        boolean[] sceneOk = f.scenes.matching(TagSplitter.SCENE, r.scene);
+
+        double[] weatherScore = new double[f.weathers.size()];
+        int wantWeather = maskOf(r.weatherTag, WEATHER_CHARS);
+        for (int c = 0; c < weatherScore.length; c++) {
+            if ((f.weatherMasks[c] & wantWeather) != 0) weatherScore[c] = W_WEATHER;
+        }
+
+        double[] seasonScore = new double[f.seasons.size()];
+        int nowSeason = seasonOfMonth(r.month);
+        int tempSeasons = seasonsForTemperature(r.temperature);
+        for (int c = 0; c < seasonScore.length; c++) {
+            int m = f.seasonMasks[c];
+            if ((m & nowSeason) != 0) seasonScore[c] += W_SEASON;
+            if ((m & tempSeasons) != 0) seasonScore[c] += W_TEMPERATURE;
+        }
+
+        // 收藏偏好：收藏里每种风格/场景的占比
+        double[] styleScore = new double[f.styles.size()];
+        double[] sceneScore = new double[f.scenes.size()];
+        int favorites = 0;
+        for (long id : r.favoriteIds) {
+            int i = f.indexOf(id);
+            if (i < 0) continue;
+            styleScore[f.style[i]] += 1;
+            sceneScore[f.scene[i]] += 1;
+            favorites++;
+        }
+        for (int c = 0; c < styleScore.length; c++) {
+            styleScore[c] = favorites == 0 ? 0 : styleScore[c] / favorites * W_FAVORITE_STYLE;
+        }
+        for (int c = 0; c < sceneScore.length; c++) {
+            sceneScore[c] = favorites == 0 ? 0 : sceneScore[c] / favorites * W_FAVORITE_SCENE;
+        }
+        if (r.defaultStyle != null && !r.defaultStyle.isEmpty()) {
+            boolean[] preferred = f.styles.matching(TagSplitter.STYLE, r.defaultStyle);
+            for (int c = 1; c < styleScore.length; c++) {
+                if (preferred[c]) styleScore[c] += W_STYLE;
+            }
+        }
+
+        // 2. 逐行查表打分，维护前 k 名的最小堆
+        TopK heap = new TopK(k);
+        for (int i = 0; i < f.ids.length; i++) {
+            int st = f.style[i], se = f.season[i], we = f.weather[i], sc = f.scene[i];
+            if (!genderOk[f.gender[i]] || !styleOk[st] || !seasonOk[se] || !weatherOk[we] || !sceneOk[sc]) continue;
+            heap.offer(f.ids[i], weatherScore[we] + seasonScore[se] + styleScore[st] + sceneScore[sc]);
+        }
+        return heap.drainDescending();
+    }
+
+    // 选了性别时只保留该性别和 unisex
+    private static boolean[] genderMatches(Dictionary genders, String gender) {
+        String g = CatalogMatcher.normalize(gender);
+        boolean[] out = new boolean[genders.size()];
+        for (int c = 0; c < out.length; c++) out[c] = CatalogMatcher.genderMatches(genders.value(c), g);
+        return out;
+    }
+
+    /**
+     * 固定容量的最小堆（堆顶是当前前 k 名里最差的一条），用原始类型数组，不装箱
+     */
+    static final class TopK {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        TopK(int capacity) {
+            ids = new long[capacity];
+            scores = new double[capacity];
+        }
+
+        void offer(long id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (worse(ids[0], scores[0], id, score)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // 依次弹出堆顶（从差到好），倒着放得到从高到低的顺序
+        long[] drainDescending() {
+            long[] out = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                out[i] = ids[0];
+                size--;
+                if (size > 0) {
+                    ids[0] = ids[size];
+                    scores[0] = scores[size];
+                    siftDown(0);
+                }
+            }
+            return out;
+        }
+
+        // a 是否排在 b 后面：分低的更差，同分时 id 大的更差
+        private static boolean worse(long aId, double aScore, long bId, double bScore) {
+            if (aScore != bScore) return aScore < bScore;
+            return aId > bId;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(ids[i], scores[i], ids[parent], scores[parent])) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = 2 * i + 1;
+                if (l >= size) break;
+                int r = l + 1;
+                int w = r < size && worse(ids[r], scores[r], ids[l], scores[l]) ? r : l;
+                if (!worse(ids[w], scores[w], ids[i], scores[i])) break;
+                swap(i, w);
+                i = w;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double s = scores[a];
+            scores[a] = scores[b];
+            scores[b] = s;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.mvvmwechat.core;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * ResultUrls - 从换装接口的 JSON 返回里找结果图地址（各家接口字段名不统一，按顺序尝试）
+ *
+ * 依次查找：
+ *  1. 顶层的 result_url / result / url / image_url / output_url / output
+ *  2. data 对象里的同名字段；data 是数组时取第一项（对象或字符串）
+ *  3. outputs[0].url
+ *  4. result.url
+ */
+public final class ResultUrls {
+    private static final String[] DIRECT_KEYS = {"result_url", "result", "url", "image_url", "output_url", "output"};
+    private static final String[] NESTED_KEYS = {"result_url", "url", "image_url", "output_url", "output"};
+
+    private ResultUrls() {}
+
+    /**
+     * @return 找不到或不是合法 JSON 时返回 null
+     */
+    public static String find(String json) {
+        if (json == null || json.trim().isEmpty()) return null;
+        JsonElement root;
+        try {
+            root = JsonParser.parseString(json);
+        } catch (JsonParseException e) {
+            return null;
+        }
+        if (!root.isJsonObject()) return null;
+        JsonObject jo = root.getAsJsonObject();
+
+        String found = firstUrl(jo, DIRECT_KEYS);
+        if (found != null) return found;
+
+        JsonElement data = jo.get("data");
+        if (data != null && data.isJsonObject()) {
+            found = firstUrl(data.getAsJsonObject(), NESTED_KEYS);
+            if (found != null) return found;
+        } else if (data != null && data.isJsonArray() && data.getAsJsonArray().size() > 0) {
+            JsonElement first = data.getAsJsonArray().get(0);
+            found = first.isJsonObject() ? firstUrl(first.getAsJsonObject(), NESTED_KEYS) : text(first);
+            if (looksLikeUrl(found)) return found;
+        }
+
+        JsonElement outputs = jo.get("outputs");
+        if (outputs != null && outputs.isJsonArray()) {
+            JsonArray arr = outputs.getAsJsonArray();
+            if (arr.size() > 0 && arr.get(0).isJsonObject()) {
+                found = text(arr.get(0).getAsJsonObject().get("url"));
+                if (looksLikeUrl(found)) return found;
+            }
+        }
+
+        JsonElement result = jo.get("result");
+        if (result != null && result.isJsonObject()) {
+            found = text(result.getAsJsonObject().get("url"));
+            if (looksLikeUrl(found)) return found;
+        }
+        return null;
+    }
+
+    public static boolean looksLikeUrl(String s) {
+        if (s == null) return false;
+        s = s.trim();
+        return s.startsWith("http://") || s.startsWith("https://") || s.startsWith("file://") || s.startsWith("content://");
+    }
+
+    private static String firstUrl(JsonObject o, String[] keys) {
+        for (String k : keys) {
+            String s = text(o.get(k));
+            if (looksLikeUrl(s)) return s;
+        }
+        return null;
+    }
+
+    // 字符串/数字取原值，对象和数组取 JSON 文本（与 org.json 的 toString 一致，不会被当成 URL）
+    private static String text(JsonElement e) {
+        if (e == null || e.isJsonNull()) return null;
+        return e.isJsonPrimitive() ? e.getAsString() : e.toString();
+    }
+}
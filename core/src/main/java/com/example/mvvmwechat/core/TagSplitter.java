@@ -0,0 +1,56 @@
+package com.example.mvvmwechat.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * TagSplitter - 把穿搭的多值文本字段拆成标签（写入 tags / outfit_tags 表，筛选时按标签走索引）
+ *
+ * - 按常见分隔符拆分：逗号、顿号、斜杠、竖线、分号、空白
+ * - 季节/天气的词表是单字的（春夏秋冬 / 晴阴雨雪），"春夏"、"晴阴" 这类连写拆成单字；
+ *   含有词表以外字符的（例如 "四季"）整体作为一个标签
+ * - 统一转小写、去重，保持原来的顺序
+ */
+public final class TagSplitter {
+    public static final String STYLE = "style";
+    public static final String SEASON = "season";
+    public static final String WEATHER = "weather";
+    public static final String SCENE = "scene";
+    // 会拆成标签的字段（性别是单值，直接按列索引）
+    public static final String[] FACETS = {STYLE, SEASON, WEATHER, SCENE};
+
+    private static final String SEASON_CHARS = "春夏秋冬";
+    private static final String WEATHER_CHARS = "晴阴雨雪";
+    private static final Pattern SEPARATORS = Pattern.compile("[,，、/|;；\\s]+");
+
+    private TagSplitter() {}
+
+    public static List<String> split(String facet, String value) {
+        List<String> out = new ArrayList<>(2);
+        String v = CatalogMatcher.normalize(value);
+        if (v.isEmpty()) return out;
+
+        String chars = SEASON.equals(facet) ? SEASON_CHARS : WEATHER.equals(facet) ? WEATHER_CHARS : null;
+        for (String token : SEPARATORS.split(v)) {
+            if (token.isEmpty()) continue;
+            if (chars != null && token.length() > 1 && allIn(token, chars)) {
+                for (int i = 0; i < token.length(); i++) addOnce(out, token.substring(i, i + 1));
+            } else {
+                addOnce(out, token);
+            }
+        }
+        return out;
+    }
+
+    private static boolean allIn(String token, String chars) {
+        for (int i = 0; i < token.length(); i++) {
+            if (chars.indexOf(token.charAt(i)) < 0) return false;
+        }
+        return true;
+    }
+
+    private static void addOnce(List<String> out, String tag) {
+        if (!out.contains(tag)) out.add(tag);
+    }
+}
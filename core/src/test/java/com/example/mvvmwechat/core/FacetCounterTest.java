@@ -0,0 +1,86 @@
+package com.example.mvvmwechat.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * FacetCounter 的计数和逐组用 CatalogMatcher 判断的结果对照（覆盖"只差一个维度"的快速路径）
+ */
+public class FacetCounterTest {
+    private static final String[][] VALUES = {
+            {"male", "female", "unisex", "Female"},
+            {"甜美", "休闲", "Casual", "职业,通勤", "运动"},
+            {"春", "夏", "春夏", "秋冬", "四季", "春、秋"},
+            {"晴", "阴", "雨", "晴阴", "雪"},
+            {"约会", "上学", "工作", "运动"}
+    };
+    private static final String[][] OPTIONS = {
+            {"all", "male", "female"},
+            {"", "甜美", "休闲", "casual", "通勤", "不存在"},
+            {"", "春", "夏", "秋", "冬", "春夏"},
+            {"", "晴", "阴", "雨", "雪"},
+            {"", "约会", "上学", "工作"}
+    };
+
+    @Test
+    public void countMatchesPerOptionScan() {
+        Random r = new Random(5);
+        String[][] groups = new String[300][];
+        int[] counts = new int[groups.length];
+        FacetCounter.Builder b = new FacetCounter.Builder();
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = new String[FacetCounter.FACETS];
+            for (int f = 0; f < FacetCounter.FACETS; f++) {
+                groups[i][f] = r.nextInt(15) == 0 ? null : VALUES[f][r.nextInt(VALUES[f].length)];
+            }
+            counts[i] = 1 + r.nextInt(9);
+            b.add(groups[i][0], groups[i][1], groups[i][2], groups[i][3], groups[i][4], counts[i]);
+        }
+        FacetCounter counter = b.build();
+
+        for (int round = 0; round < 300; round++) {
+            String[] selection = new String[FacetCounter.FACETS];
+            for (int f = 0; f < FacetCounter.FACETS; f++) {
+                // 大约一半维度不限，让"全部满足 / 只差一个维度 / 差两个以上"都出现
+                selection[f] = r.nextBoolean() ? OPTIONS[f][0] : OPTIONS[f][r.nextInt(OPTIONS[f].length)];
+            }
+            String label = Arrays.toString(selection);
+
+            assertEquals(label, scan(groups, counts, selection), counter.total(selection));
+            int[][] out = counter.count(selection, OPTIONS);
+            for (int f = 0; f < FacetCounter.FACETS; f++) {
+                int[] expected = new int[OPTIONS[f].length];
+                for (int o = 0; o < expected.length; o++) {
+                    String[] s = selection.clone();
+                    s[f] = OPTIONS[f][o];
+                    expected[o] = scan(groups, counts, s);
+                }
+                assertArrayEquals(label + " facet " + f, expected, out[f]);
+            }
+        }
+    }
+
+    @Test
+    public void emptyCube() {
+        FacetCounter counter = new FacetCounter.Builder().build();
+        String[] selection = {"all", "", "", "", ""};
+        assertEquals(0, counter.total(selection));
+        int[][] out = counter.count(selection, OPTIONS);
+        for (int f = 0; f < FacetCounter.FACETS; f++) assertArrayEquals(new int[OPTIONS[f].length], out[f]);
+    }
+
+    private static int scan(String[][] groups, int[] counts, String[] s) {
+        CatalogMatcher m = new CatalogMatcher(s[0], s[1], s[2], s[3], s[4]);
+        int total = 0;
+        for (int i = 0; i < groups.length; i++) {
+            String[] g = groups[i];
+            if (m.matches(new OutfitIndexTest.Item(i, null, g[0], g[1], g[2], g[3], g[4]))) total += counts[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.mvvmwechat.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * OutfitIndex 的结果和逐条暴力匹配（TagSplitter 拆标签 + 子串查找）对照
+ */
+public class OutfitIndexTest {
+    private static final String[] GENDERS = {"male", "female", "unisex", "Female"};
+    private static final String[] STYLES = {"甜美", "休闲", "Casual", "职业,通勤", "运动"};
+    private static final String[] SEASONS = {"春", "夏", "春夏", "秋冬", "四季", "春、秋"};
+    private static final String[] WEATHERS = {"晴", "阴", "雨", "晴阴", "雪"};
+    private static final String[] SCENES = {"约会", "上学", "工作", "运动"};
+    private static final String[] TITLES = {"碎花连衣裙", "Denim 夹克", "通勤西装", "雨天风衣", "冬季羽绒服", "运动卫衣"};
+
+    private static final String[][] FILTERS = {
+            {"", "", "", "", ""},
+            {"all", "", "", "", ""},
+            {"female", "", "", "", ""},
+            {"MALE", "", "春", "", ""},
+            {"", "casual", "", "", ""},
+            {"", "", "春夏", "晴", ""},
+            {"unisex", "通勤", "", "", "工作"},
+            {"", "", "四季", "", ""},
+            {"", "不存在", "", "", ""},
+            {"female", "甜美", "秋", "雨", "约会"}
+    };
+    private static final String[] KEYWORDS = {"", "连衣裙", "denim", "DENIM 夹克", "约会", "春", "运动", "  衣  ", "没有这个词"};
+
+    static final class Item implements OutfitIndex.Entry {
+        final long id;
+        final String title;
+        final String gender;
+        final String style;
+        final String season;
+        final String weather;
+        final String scene;
+
+        Item(long id, String title, String gender, String style, String season, String weather, String scene) {
+            this.id = id;
+            this.title = title;
+            this.gender = gender;
+            this.style = style;
+            this.season = season;
+            this.weather = weather;
+            this.scene = scene;
+        }
+
+        @Override public long itemId() { return id; }
+        @Override public String title() { return title; }
+        @Override public String gender() { return gender; }
+        @Override public String style() { return style; }
+        @Override public String season() { return season; }
+        @Override public String weather() { return weather; }
+        @Override public String scene() { return scene; }
+    }
+
+    @Test
+    public void matchesBruteForceForEveryFilterAndKeyword() {
+        // 1000 不是 64 的倍数，顺带覆盖最后一个字的尾部位
+        List<Item> catalog = catalog(1000);
+        OutfitIndex.Query query = OutfitIndex.build(catalog).newQuery();
+        for (String[] f : FILTERS) {
+            for (String keyword : KEYWORDS) {
+                query.setFilter(f[0], f[1], f[2], f[3], f[4]);
+                int n = query.run(keyword);
+                long[] expected = bruteForce(catalog, f, keyword);
+                String label = Arrays.toString(f) + " '" + keyword + "'";
+                assertEquals(label, expected.length, n);
+                assertArrayEquals(label, expected, query.ids());
+            }
+        }
+    }
+
+    @Test
+    public void reusedQueryRecomputesWhenFilterChanges() {
+        List<Item> catalog = catalog(300);
+        OutfitIndex.Query query = OutfitIndex.build(catalog).newQuery();
+        for (int round = 0; round < 3; round++) {
+            for (String[] f : FILTERS) {
+                query.setFilter(f[0], f[1], f[2], f[3], f[4]);
+                assertArrayEquals(Arrays.toString(f), bruteForce(catalog, f, "衣"), idsOf(query, query.run("衣")));
+            }
+        }
+    }
+
+    @Test
+    public void titleHitsComeFirstAndTiesKeepCatalogOrder() {
+        List<Item> catalog = new ArrayList<>();
+        catalog.add(new Item(1, "日常", "female", "约会风", null, null, null));
+        catalog.add(new Item(2, "约会连衣裙", "female", null, null, null, null));
+        catalog.add(new Item(3, "上班", "female", null, null, null, "约会"));
+        catalog.add(new Item(4, "约会小香风", "female", "约会", null, null, null));
+        catalog.add(new Item(5, "约会", "male", null, null, null, null));
+        OutfitIndex.Query query = OutfitIndex.build(catalog).newQuery();
+
+        query.setFilter("female", "", "", "", "");
+        query.run("约会");
+        // 4：标题 + 风格；2：标题；1、3：只有其它字段，按目录顺序
+        assertArrayEquals(new long[]{4, 2, 1, 3}, query.ids());
+    }
+
+    @Test
+    public void emptyCatalog() {
+        OutfitIndex.Query query = OutfitIndex.build(new ArrayList<Item>()).newQuery();
+        query.setFilter("female", "甜美", "", "", "");
+        assertEquals(0, query.run("裙"));
+        assertEquals(0, query.run(""));
+    }
+
+    private static List<Item> catalog(int size) {
+        Random r = new Random(42);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i + 1, pick(r, TITLES), pick(r, GENDERS), pick(r, STYLES),
+                    pick(r, SEASONS), pick(r, WEATHERS), pick(r, SCENES)));
+        }
+        return items;
+    }
+
+    private static String pick(Random r, String[] values) {
+        return r.nextInt(20) == 0 ? null : values[r.nextInt(values.length)];
+    }
+
+    private static long[] idsOf(OutfitIndex.Query query, int n) {
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) ids[i] = query.id(i);
+        return ids;
+    }
+
+    // 期望结果：按标签筛选（同 OutfitFilter 的 SQL）；每个词都要出现在标题或其它字段里；标题命中 4 分、其它字段 1 分，同分按目录顺序
+    private static long[] bruteForce(List<Item> catalog, String[] f, String keyword) {
+        String[] terms = keyword.trim().isEmpty() ? new String[0]
+                : keyword.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        List<long[]> hits = new ArrayList<>();
+        for (Item item : catalog) {
+            if (!facetsMatch(item, f)) continue;
+            String title = lower(item.title);
+            String other = lower(item.style) + "\n" + lower(item.scene) + "\n" + lower(item.season) + "\n" + lower(item.weather);
+            int score = 0;
+            for (String t : terms) {
+                int s = (title.contains(t) ? 4 : 0) + (other.contains(t) ? 1 : 0);
+                if (s == 0) {
+                    score = -1;
+                    break;
+                }
+                score += s;
+            }
+            if (score >= 0) hits.add(new long[]{item.id, score});
+        }
+        // 稳定排序
+        long[][] sorted = hits.toArray(new long[0][]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(b[1], a[1]));
+        long[] ids = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) ids[i] = sorted[i][0];
+        return ids;
+    }
+
+    private static boolean facetsMatch(Item item, String[] f) {
+        return CatalogMatcher.genderMatches(item.gender, CatalogMatcher.normalize(f[0]))
+                && hasTags(TagSplitter.STYLE, item.style, f[1])
+                && hasTags(TagSplitter.SEASON, item.season, f[2])
+                && hasTags(TagSplitter.WEATHER, item.weather, f[3])
+                && hasTags(TagSplitter.SCENE, item.scene, f[4]);
+    }
+
+    private static boolean hasTags(String facet, String value, String wanted) {
+        return TagSplitter.split(facet, value).containsAll(TagSplitter.split(facet, wanted));
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+}
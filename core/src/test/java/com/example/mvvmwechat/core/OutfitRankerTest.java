@@ -0,0 +1,126 @@
+package com.example.mvvmwechat.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OutfitRanker 的前 k 名和整体排序对照：堆选出的结果应当正好是全排序的前缀
+ */
+public class OutfitRankerTest {
+    private static final String[] GENDERS = {"male", "female", "unisex"};
+    private static final String[] STYLES = {"甜美", "休闲", "职业", "运动"};
+    private static final String[] SEASONS = {"春", "夏", "春夏", "秋冬", "四季"};
+    private static final String[] WEATHERS = {"晴", "阴", "雨", "晴阴", "雪"};
+    private static final String[] SCENES = {"约会", "上学", "工作"};
+
+    @Test
+    public void heapMatchesFullSortWithTies() {
+        Random r = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int n = r.nextInt(60);
+            long[] ids = new long[n];
+            double[] scores = new double[n];
+            for (int i = 0; i < n; i++) {
+                // id 打乱顺序、分数只取几个值，保证有大量同分
+                ids[i] = r.nextInt(1000);
+                scores[i] = r.nextInt(4) * 0.5;
+            }
+            long[] expected = fullSort(ids, scores);
+            for (int k = 1; k <= n + 2; k++) {
+                OutfitRanker.TopK heap = new OutfitRanker.TopK(k);
+                for (int i = 0; i < n; i++) heap.offer(ids[i], scores[i]);
+                long[] want = Arrays.copyOf(expected, Math.min(k, n));
+                assertArrayEquals("n=" + n + " k=" + k, want, heap.drainDescending());
+            }
+        }
+    }
+
+    @Test
+    public void sameScoreKeepsSmallerIdFirst() {
+        OutfitRanker.TopK heap = new OutfitRanker.TopK(3);
+        for (long id : new long[]{9, 4, 7, 1, 8, 2}) heap.offer(id, 1.0);
+        heap.offer(5, 2.0);
+        assertArrayEquals(new long[]{5, 1, 2}, heap.drainDescending());
+    }
+
+    @Test
+    public void topKIsPrefixOfFullRankingAndHonoursFilters() {
+        List<OutfitIndexTest.Item> catalog = catalog(500);
+        OutfitRanker.Features features = OutfitRanker.Features.build(catalog);
+        Random r = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            OutfitRanker.Request req = request(r, catalog);
+            req.limit = catalog.size();
+            long[] full = OutfitRanker.topK(features, req);
+
+            // 硬条件：排出来的正好是 CatalogMatcher 匹配的那些
+            CatalogMatcher m = new CatalogMatcher(req.gender, req.style, req.season, req.weather, req.scene);
+            List<Long> matching = new ArrayList<>();
+            for (OutfitIndexTest.Item item : catalog) if (m.matches(item)) matching.add(item.id);
+            long[] sorted = full.clone();
+            Arrays.sort(sorted);
+            assertEquals(matching.size(), sorted.length);
+            for (int i = 0; i < sorted.length; i++) assertEquals((long) matching.get(i), sorted[i]);
+
+            for (int k : new int[]{1, 5, 20, 100}) {
+                req.limit = k;
+                assertArrayEquals("round " + round + " k=" + k,
+                        Arrays.copyOf(full, Math.min(k, full.length)), OutfitRanker.topK(features, req));
+            }
+        }
+    }
+
+    @Test
+    public void emptyCatalogOrZeroLimit() {
+        OutfitRanker.Request req = new OutfitRanker.Request();
+        assertEquals(0, OutfitRanker.topK(OutfitRanker.Features.build(new ArrayList<OutfitIndexTest.Item>()), req).length);
+        req.limit = 0;
+        assertEquals(0, OutfitRanker.topK(OutfitRanker.Features.build(catalog(10)), req).length);
+    }
+
+    // 期望顺序：分数从高到低，同分 id 小的在前
+    private static long[] fullSort(long[] ids, double[] scores) {
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Long.compare(ids[a], ids[b]));
+        long[] out = new long[ids.length];
+        for (int i = 0; i < out.length; i++) out[i] = ids[order[i]];
+        return out;
+    }
+
+    private static List<OutfitIndexTest.Item> catalog(int size) {
+        Random r = new Random(3);
+        List<OutfitIndexTest.Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new OutfitIndexTest.Item(i + 1, null, pick(r, GENDERS), pick(r, STYLES),
+                    pick(r, SEASONS), pick(r, WEATHERS), pick(r, SCENES)));
+        }
+        return items;
+    }
+
+    private static OutfitRanker.Request request(Random r, List<OutfitIndexTest.Item> catalog) {
+        OutfitRanker.Request req = new OutfitRanker.Request();
+        req.gender = r.nextBoolean() ? "all" : GENDERS[r.nextInt(2)];
+        req.defaultStyle = r.nextBoolean() ? "" : STYLES[r.nextInt(STYLES.length)];
+        req.weatherTag = r.nextBoolean() ? null : WEATHERS[r.nextInt(4)];
+        req.temperature = r.nextBoolean() ? Double.NaN : r.nextInt(40) - 5;
+        req.month = 1 + r.nextInt(12);
+        req.favoriteIds = new long[r.nextInt(5)];
+        for (int i = 0; i < req.favoriteIds.length; i++) req.favoriteIds[i] = catalog.get(r.nextInt(catalog.size())).id;
+        req.season = r.nextInt(3) == 0 ? SEASONS[r.nextInt(SEASONS.length)] : "";
+        req.scene = r.nextInt(4) == 0 ? SCENES[r.nextInt(SCENES.length)] : "";
+        return req;
+    }
+
+    private static String pick(Random r, String[] values) {
+        return r.nextInt(20) == 0 ? null : values[r.nextInt(values.length)];
+    }
+}
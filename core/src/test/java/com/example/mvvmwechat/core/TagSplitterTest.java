@@ -0,0 +1,57 @@
+package com.example.mvvmwechat.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TagSplitter 的输出会被 MIGRATION_8_9 和每次写库永久写进 outfit_tags，改动拆分规则要先看这里
+ */
+public class TagSplitterTest {
+
+    @Test
+    public void seasonRunIsSplitIntoSingleCharacters() {
+        assertEquals(Arrays.asList("春", "夏"), TagSplitter.split(TagSplitter.SEASON, "春夏"));
+        assertEquals(Arrays.asList("秋", "冬"), TagSplitter.split(TagSplitter.SEASON, "秋冬"));
+    }
+
+    @Test
+    public void weatherRunIsSplitIntoSingleCharacters() {
+        assertEquals(Arrays.asList("晴", "阴"), TagSplitter.split(TagSplitter.WEATHER, "晴阴"));
+    }
+
+    @Test
+    public void tokenWithCharactersOutsideTheVocabularyStaysWhole() {
+        assertEquals(Collections.singletonList("四季"), TagSplitter.split(TagSplitter.SEASON, "四季"));
+        assertEquals(Arrays.asList("春", "四季"), TagSplitter.split(TagSplitter.SEASON, "春, 四季"));
+    }
+
+    @Test
+    public void styleAndSceneAreNotSplitIntoCharacters() {
+        assertEquals(Collections.singletonList("春夏"), TagSplitter.split(TagSplitter.STYLE, "春夏"));
+        assertEquals(Collections.singletonList("约会"), TagSplitter.split(TagSplitter.SCENE, "约会"));
+    }
+
+    @Test
+    public void splitsOnAllSeparators() {
+        assertEquals(Arrays.asList("甜美", "休闲", "职业", "运动", "通勤", "复古", "街头"),
+                TagSplitter.split(TagSplitter.STYLE, "甜美,休闲，职业、运动/通勤|复古；街头"));
+        assertEquals(Arrays.asList("晴", "阴", "雨"), TagSplitter.split(TagSplitter.WEATHER, "晴 / 阴  雨"));
+    }
+
+    @Test
+    public void lowercasesAndDeduplicatesMixedCaseInput() {
+        assertEquals(Arrays.asList("casual", "通勤"), TagSplitter.split(TagSplitter.STYLE, " Casual，通勤、CASUAL "));
+        assertEquals(Arrays.asList("春", "夏"), TagSplitter.split(TagSplitter.SEASON, "春夏/夏"));
+    }
+
+    @Test
+    public void emptyValuesGiveNoTags() {
+        assertEquals(Collections.emptyList(), TagSplitter.split(TagSplitter.STYLE, null));
+        assertEquals(Collections.emptyList(), TagSplitter.split(TagSplitter.STYLE, "   "));
+        assertEquals(Collections.emptyList(), TagSplitter.split(TagSplitter.SEASON, " , ，"));
+    }
+}